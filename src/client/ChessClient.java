@@ -2,6 +2,8 @@ package client;
 
 import com.github.bhlangonijr.chesslib.*;
 import com.github.bhlangonijr.chesslib.move.*;
+import engine.ChessEngine;
+import engine.SearchEngine;
 import engine.StockfishEngine;
 import java.awt.*;
 import java.io.*;
@@ -117,7 +119,7 @@ public class ChessClient extends JFrame {
     private PrintWriter out;
     private BufferedReader in;
 
-    private StockfishEngine stockfish;
+    private ChessEngine chessEngine;
     private int aiThinkTime = 1000;
 
     // Highlight colors and tracking - now using dots instead of background colors
@@ -249,11 +251,12 @@ public class ChessClient extends JFrame {
 
     private void initializeStockfish() {
         try {
-            stockfish = new StockfishEngine("stockfish.exe");
+            chessEngine = new StockfishEngine("stockfish.exe");
             System.out.println("Stockfish initialized successfully");
         } catch (IOException e) {
-            stockfish = null;
-            System.err.println("Stockfish not found: " + e.getMessage());
+            // fall back to the built-in engine, so that AI mode and hints are still available
+            chessEngine = new SearchEngine();
+            System.err.println("Stockfish not found, using the built-in engine: " + e.getMessage());
         }
     }
 
@@ -764,8 +767,8 @@ public class ChessClient extends JFrame {
         } else if (isAIMode) {
             playerColor = promptForColor();
             isBoardFlipped = "black".equalsIgnoreCase(playerColor);
-            if (stockfish == null) {
-                JOptionPane.showMessageDialog(this, "Stockfish engine not available.", "AI Unavailable", JOptionPane.ERROR_MESSAGE);
+            if (chessEngine == null) {
+                JOptionPane.showMessageDialog(this, "Chess engine not available.", "AI Unavailable", JOptionPane.ERROR_MESSAGE);
                 return;
             }
             isMyTurn = "white".equalsIgnoreCase(playerColor);
@@ -1036,15 +1039,8 @@ public class ChessClient extends JFrame {
                 String promo = promptForPromotion();
                 if (promo != null) moveStr += promo;
             }
-            Move move = new Move(moveStr, movingSide);
-            List<Move> legalMoves = MoveGenerator.generateLegalMoves(game);
-            boolean isLegal = false;
-            for (Move legal : legalMoves) {
-                if (legal.equals(move)) {
-                    isLegal = true;
-                    break;
-                }
-            }
+            Move move = Move.valueOf(moveStr, movingSide);
+            boolean isLegal = game.isLegal(move);
             if (isLegal) {
                 // Store board state before move for capture detection
                 Piece[][] beforeBoard = getBoardMatrix(game);
@@ -1108,15 +1104,8 @@ public class ChessClient extends JFrame {
                 String promotion = promptForPromotion();
                 if (promotion != null) moveStr += promotion.toLowerCase();
             }
-            Move move = new Move(moveStr, Side.valueOf(playerColor.toUpperCase()));
-            List<Move> legalMoves = MoveGenerator.generateLegalMoves(game);
-            boolean isLegal = false;
-            for (Move legal : legalMoves) {
-                if (legal.equals(move)) {
-                    isLegal = true;
-                    break;
-                }
-            }
+            Move move = Move.valueOf(moveStr, Side.valueOf(playerColor.toUpperCase()));
+            boolean isLegal = game.isLegal(move);
             if (isLegal) {
                 // Store board state before move for capture detection
                 Piece[][] beforeBoard = getBoardMatrix(game);
@@ -1179,15 +1168,8 @@ public class ChessClient extends JFrame {
                 String promotion = promptForPromotion();
                 if (promotion != null) moveStr += promotion.toLowerCase();
             }
-            Move move = new Move(moveStr, game.getSideToMove());
-            List<Move> legalMoves = MoveGenerator.generateLegalMoves(game);
-            boolean isLegal = false;
-            for (Move legal : legalMoves) {
-                if (legal.equals(move)) {
-                    isLegal = true;
-                    break;
-                }
-            }
+            Move move = Move.valueOf(moveStr, game.getSideToMove());
+            boolean isLegal = game.isLegal(move);
             if (isLegal) {
                 // Store board state before move for capture detection
                 Piece[][] beforeBoard = getBoardMatrix(game);
@@ -1224,22 +1206,15 @@ public class ChessClient extends JFrame {
     }
 
     private void makeAIMove() {
-        if (stockfish == null || gameEnded) return;
+        if (chessEngine == null || gameEnded) return;
         new Thread(() -> {
             try {
-                String aiMove = stockfish.getBestMove(game.getFen(), aiThinkTime);
+                String aiMove = chessEngine.getBestMove(game.getFen(), aiThinkTime);
                 if (aiMove != null && !aiMove.equals("(none)")) {
                     SwingUtilities.invokeLater(() -> {
                         try {
-                            Move move = new Move(aiMove, playerColor.equalsIgnoreCase("white") ? Side.BLACK : Side.WHITE);
-                            List<Move> legalMoves = MoveGenerator.generateLegalMoves(game);
-                            boolean isLegal = false;
-                            for (Move legal : legalMoves) {
-                                if (legal.equals(move)) {
-                                    isLegal = true;
-                                    break;
-                                }
-                            }
+                            Move move = Move.valueOf(aiMove, playerColor.equalsIgnoreCase("white") ? Side.BLACK : Side.WHITE);
+                            boolean isLegal = game.isLegal(move);
                             if (isLegal) {
                                 // Store board state before move for capture detection
                                 Piece[][] beforeBoard = getBoardMatrix(game);
@@ -1615,15 +1590,8 @@ public class ChessClient extends JFrame {
 
     private void applyMove(String moveString) {
         try {
-            Move move = new Move(moveString.toUpperCase(), game.getSideToMove());
-            List<Move> legalMoves = MoveGenerator.generateLegalMoves(game);
-            boolean isLegal = false;
-            for (Move legal : legalMoves) {
-                if (legal.equals(move)) {
-                    isLegal = true;
-                    break;
-                }
-            }
+            Move move = Move.valueOf(moveString.toUpperCase(), game.getSideToMove());
+            boolean isLegal = game.isLegal(move);
             if (isLegal) {
                 // Store board state before move for capture detection
                 Piece[][] beforeBoard = getBoardMatrix(game);
@@ -1646,8 +1614,9 @@ public class ChessClient extends JFrame {
     }
 
     private void checkGameState() {
+        BoardStatus status = game.getStatus();
         if (game.isKingAttacked()) {
-            if (game.isMated()) {
+            if (status == BoardStatus.CHECKMATE) {
                 gameEnded = true;
                 Side winner = game.getSideToMove() == Side.WHITE ? Side.BLACK : Side.WHITE;
                 String winnerName = isAIMode ?
@@ -1662,28 +1631,29 @@ public class ChessClient extends JFrame {
             }
         } else {
             clearCheckHighlight(); // Clear check highlight when not in check
-            if (game.isStaleMate()) {
+            if (status == BoardStatus.STALEMATE) {
                 gameEnded = true;
                 statusLabel.setText("STALEMATE! Game is a draw!");
                 JOptionPane.showMessageDialog(this, "Stalemate! The game is a draw.");
-            } else if (game.isDraw()) {
+            } else if (status.isDraw()) {
                 gameEnded = true;
-                String drawReason = getDrawReason();
+                String drawReason = getDrawReason(status);
                 statusLabel.setText("DRAW! " + drawReason);
                 JOptionPane.showMessageDialog(this, "Draw! " + drawReason);
             }
         }
     }
 
-    private String getDrawReason() {
-        if (game.isRepetition()) {
-            return "Three-fold repetition";
-        } else if (game.isInsufficientMaterial()) {
-            return "Insufficient material";
-        } else if (game.getHalfMoveCounter() >= 100) {
-            return "50-move rule";
-        } else {
-            return "Draw by other rules";
+    private String getDrawReason(BoardStatus status) {
+        switch (status) {
+            case REPETITION:
+                return "Three-fold repetition";
+            case INSUFFICIENT_MATERIAL:
+                return "Insufficient material";
+            case FIFTY_MOVE_RULE:
+                return "50-move rule";
+            default:
+                return "Draw by other rules";
         }
     }
 
@@ -1828,16 +1798,16 @@ public class ChessClient extends JFrame {
     }
 
     private void showAITutorSuggestion() {
-        if (stockfish == null) {
-            JOptionPane.showMessageDialog(this, "Stockfish engine not available.", "AI Unavailable", JOptionPane.ERROR_MESSAGE);
+        if (chessEngine == null) {
+            JOptionPane.showMessageDialog(this, "Chess engine not available.", "AI Unavailable", JOptionPane.ERROR_MESSAGE);
             return;
         }
         String fen = game.getFen();
         try {
-            String bestMove = stockfish.getBestMove(fen, aiThinkTime);
+            String bestMove = chessEngine.getBestMove(fen, aiThinkTime);
             // Use aiThinkTime/1000 as depth, but minimum 5
             int depth = Math.max(5, aiThinkTime / 1000);
-            int eval = stockfish.getEvaluation(fen, depth);
+            int eval = chessEngine.getEvaluation(fen, depth);
             String evalString;
             if (eval > 0) {
                 evalString = String.format("+%.2f", eval / 100.0);
@@ -1894,15 +1864,8 @@ public class ChessClient extends JFrame {
             String promo = promptForPromotion();
             if (promo != null) moveStr += promo;
         }
-        Move move = new Move(moveStr, movingSide);
-        List<Move> legalMoves = MoveGenerator.generateLegalMoves(game);
-        boolean isLegal = false;
-        for (Move legal : legalMoves) {
-            if (legal.equals(move)) {
-                isLegal = true;
-                break;
-            }
-        }
+        Move move = Move.valueOf(moveStr, movingSide);
+        boolean isLegal = game.isLegal(move);
         if (isLegal) {
             // Store board state before move for capture detection
             Piece[][] beforeBoard = getBoardMatrix(game);
@@ -2226,13 +2189,13 @@ public class ChessClient extends JFrame {
 
     // Show best move hint using Stockfish and overlay arrow
     private void showBestMoveHint() {
-        if (stockfish == null) {
-            JOptionPane.showMessageDialog(this, "Stockfish engine not available.", "AI Unavailable", JOptionPane.ERROR_MESSAGE);
+        if (chessEngine == null) {
+            JOptionPane.showMessageDialog(this, "Chess engine not available.", "AI Unavailable", JOptionPane.ERROR_MESSAGE);
             return;
         }
         String fen = game.getFen();
         try {
-            String bestMove = stockfish.getBestMove(fen, aiThinkTime);
+            String bestMove = chessEngine.getBestMove(fen, aiThinkTime);
             if (bestMove != null && bestMove.length() >= 4) {
                 aiHintFromSquare = bestMove.substring(0, 2).toUpperCase();
                 aiHintToSquare = bestMove.substring(2, 4).toUpperCase();
@@ -23,6 +23,8 @@ import static com.github.bhlangonijr.chesslib.Square.*;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.github.bhlangonijr.chesslib.util.XorShiftRandom;
+
 /**
  * A collection of bitboards and related constant values useful to perform efficient board manipulations, fast squares
  * comparisons, and to mask some operations to limited portions of the board.
@@ -319,6 +321,226 @@ public class Bitboard {
         }
     }
 
+    /**
+     * The name of the system property that controls the use of magic bitboards for computing slider attacks. When the
+     * property is set to {@code false}, the attack tables are not built and slider attacks are computed scanning the
+     * rays of the piece on every call.
+     */
+    public static final String MAGIC_BITBOARDS_PROPERTY = "chesslib.magicBitboards";
+
+    private static final long MAGIC_SEED = 0x2545F4914F6CDD1DL;
+    private static final int MAGIC_SELF_CHECK_SAMPLES = 256;
+    private static final long boardEdges = rankBB[0] | rankBB[7] | fileBB[0] | fileBB[7];
+
+    /**
+     * The relevant occupancy masks of a rook placed in any given square on the board, that is, the squares attacked by
+     * the rook on an empty board excluding the edges of its rays. Only the pieces within the mask can block the rook.
+     */
+    static final long[] rookMasks = new long[64];
+    /**
+     * The relevant occupancy masks of a bishop placed in any given square on the board, that is, the squares attacked
+     * by the bishop on an empty board excluding the edges of the board. Only the pieces within the mask can block the
+     * bishop.
+     */
+    static final long[] bishopMasks = new long[64];
+    /**
+     * The magic numbers used to index the rook attack tables. The values have been found by trial and error using the
+     * same search performed at initialization in case any of them turns out to be unsuitable.
+     */
+    static final long[] rookMagics = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+            0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+    /**
+     * The magic numbers used to index the bishop attack tables. The values have been found by trial and error using the
+     * same search performed at initialization in case any of them turns out to be unsuitable.
+     */
+    static final long[] bishopMagics = {
+            0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+            0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+            0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+            0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+            0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+            0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+            0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+            0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+            0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+            0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+            0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+            0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+            0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+            0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+            0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+            0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+    };
+    static final int[] rookShifts = new int[64];
+    static final int[] bishopShifts = new int[64];
+    static final int[] rookOffsets = new int[64];
+    static final int[] bishopOffsets = new int[64];
+    /**
+     * The rook attacks for every square and every relevant occupancy, indexed by magic multiplication. The attacks of
+     * each square are stored in a contiguous slice starting at the offset of the square.
+     */
+    static final long[] rookTable;
+    /**
+     * The bishop attacks for every square and every relevant occupancy, indexed by magic multiplication. The attacks of
+     * each square are stored in a contiguous slice starting at the offset of the square.
+     */
+    static final long[] bishopTable;
+
+    private static final boolean magicEnabled;
+
+    /**
+     * The squares strictly between any two squares lying on the same rank, file or diagonal. The bitboard is empty
+     * when the two squares are not aligned.
+     */
+    static final long[][] squaresBetween = new long[64][64];
+    /**
+     * The full lines, from edge to edge of the board, passing through any two squares lying on the same rank, file or
+     * diagonal. The bitboard is empty when the two squares are not aligned.
+     */
+    static final long[][] squaresOnLine = new long[64][64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            long sqBb = 1L << sq;
+            rookMasks[sq] = (fileAttacks[sq] & ~(rankBB[0] | rankBB[7]) |
+                    rankAttacks[sq] & ~(fileBB[0] | fileBB[7])) & ~sqBb;
+            bishopMasks[sq] = (diagA1H8Attacks[sq] | diagH1A8Attacks[sq]) & ~boardEdges & ~sqBb;
+        }
+        boolean enabled = !"false".equalsIgnoreCase(System.getProperty(MAGIC_BITBOARDS_PROPERTY));
+        if (enabled) {
+            rookTable = new long[tableSize(rookMasks)];
+            bishopTable = new long[tableSize(bishopMasks)];
+            XorShiftRandom random = new XorShiftRandom(MAGIC_SEED);
+            initMagics(random, true, rookMasks, rookMagics, rookShifts, rookOffsets, rookTable);
+            initMagics(random, false, bishopMasks, bishopMagics, bishopShifts, bishopOffsets, bishopTable);
+            enabled = verifyMagicAttacks(random);
+        } else {
+            rookTable = new long[0];
+            bishopTable = new long[0];
+        }
+        magicEnabled = enabled;
+
+        for (int sq1 = 0; sq1 < 64; sq1++) {
+            for (int sq2 = 0; sq2 < 64; sq2++) {
+                if (sq1 == sq2) {
+                    continue;
+                }
+                long bb1 = 1L << sq1;
+                long bb2 = 1L << sq2;
+                if ((getRookRayAttacks(0L, sq1) & bb2) != 0L) {
+                    squaresBetween[sq1][sq2] = getRookRayAttacks(bb2, sq1) & getRookRayAttacks(bb1, sq2);
+                    squaresOnLine[sq1][sq2] = (getRookRayAttacks(0L, sq1) & getRookRayAttacks(0L, sq2)) | bb1 | bb2;
+                } else if ((getBishopRayAttacks(0L, sq1) & bb2) != 0L) {
+                    squaresBetween[sq1][sq2] = getBishopRayAttacks(bb2, sq1) & getBishopRayAttacks(bb1, sq2);
+                    squaresOnLine[sq1][sq2] =
+                            (getBishopRayAttacks(0L, sq1) & getBishopRayAttacks(0L, sq2)) | bb1 | bb2;
+                }
+            }
+        }
+    }
+
+    private static int tableSize(long[] masks) {
+        int size = 0;
+        for (long mask : masks) {
+            size += 1 << Long.bitCount(mask);
+        }
+        return size;
+    }
+
+    /*
+     * fills the attack table of each square with the attacks computed scanning the rays, for every subset of the
+     * relevant occupancy mask. If the stored magic number of a square causes destructive collisions, a new one is found
+     * by trial and error
+     */
+    private static void initMagics(XorShiftRandom random, boolean rook, long[] masks, long[] magics,
+                                   int[] shifts, int[] offsets, long[] table) {
+        long[] occupancies = new long[4096];
+        long[] attacks = new long[4096];
+        int[] epoch = new int[4096];
+        int attempt = 0;
+        int offset = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = masks[sq];
+            int shift = 64 - Long.bitCount(mask);
+            int size = 0;
+            long occ = 0L;
+            do {
+                occupancies[size] = occ;
+                attacks[size] = rook ? getRookRayAttacks(occ, sq) : getBishopRayAttacks(occ, sq);
+                size++;
+                occ = (occ - mask) & mask;
+            } while (occ != 0L);
+
+            long magic = magics[sq];
+            search:
+            while (true) {
+                attempt++;
+                for (int i = 0; i < size; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> shift);
+                    if (epoch[index] < attempt) {
+                        epoch[index] = attempt;
+                        table[offset + index] = attacks[i];
+                    } else if (table[offset + index] != attacks[i]) {
+                        do {
+                            magic = random.nextLong() & random.nextLong() & random.nextLong();
+                        } while (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6);
+                        continue search;
+                    }
+                }
+                break;
+            }
+            magics[sq] = magic;
+            shifts[sq] = shift;
+            offsets[sq] = offset;
+            offset += size;
+        }
+    }
+
+    /*
+     * self-check of the magic attack tables against the ray-scanning implementation, using random occupancies that
+     * include squares outside the relevant masks
+     */
+    private static boolean verifyMagicAttacks(XorShiftRandom random) {
+        for (int sq = 0; sq < 64; sq++) {
+            for (int i = 0; i < MAGIC_SELF_CHECK_SAMPLES; i++) {
+                long occ = random.nextLong() & random.nextLong();
+                if (getRookMagicAttacks(occ, sq) != getRookRayAttacks(occ, sq) ||
+                        getBishopMagicAttacks(occ, sq) != getBishopRayAttacks(occ, sq)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether slider attacks are looked up in the precomputed magic bitboard tables. It returns {@code false}
+     * when magic bitboards have been disabled via the {@link Bitboard#MAGIC_BITBOARDS_PROPERTY} system property, or if
+     * the tables failed the self-check against the ray-scanning implementation performed at initialization. In both
+     * cases, slider attacks are computed scanning the rays on every call.
+     *
+     * @return {@code true} if magic bitboards are used to compute slider attacks
+     */
+    public static boolean isMagicEnabled() {
+        return magicEnabled;
+    }
+
     /**
      * Returns the bitboard representing the single square provided in input.
      *
@@ -415,13 +637,39 @@ public class Bitboard {
         return bbTable[sq1][sq2] & bb;
     }
 
+    /**
+     * Returns the bitboard of the squares strictly between two squares lying on the same rank, file or diagonal. For
+     * example, the squares between {@code A1} and {@code D4} are {@code B2} and {@code C3}. If the two squares are not
+     * aligned, the bitboard is empty.
+     *
+     * @param sq1 the index of the first square
+     * @param sq2 the index of the second square
+     * @return the bitboard of the squares between the two squares
+     */
+    public static long getSquaresBetween(int sq1, int sq2) {
+        return squaresBetween[sq1][sq2];
+    }
+
+    /**
+     * Returns the bitboard of the full line, from edge to edge of the board, that passes through two squares lying on
+     * the same rank, file or diagonal. For example, the line through {@code B2} and {@code C3} is the whole
+     * {@code A1-H8} diagonal. If the two squares are not aligned, the bitboard is empty.
+     *
+     * @param sq1 the index of the first square
+     * @param sq2 the index of the second square
+     * @return the bitboard of the line passing through the two squares
+     */
+    public static long getSquaresOnLine(int sq1, int sq2) {
+        return squaresOnLine[sq1][sq2];
+    }
+
     /**
      * Unsets the first bit set to 1. In other words, it sets to 0 the Least Significant 1-bit (LS1B).
      *
      * @param bb the bitboard to compute
      * @return the resulting bitboard, from which the first bit set to 1 has been unset
      */
-    public static long extractLsb(Long bb) {
+    public static long extractLsb(long bb) {
         return bb & (bb - 1);
     }
 
@@ -431,7 +679,7 @@ public class Bitboard {
      * @param bb the bitboard to check
      * @return {@code true} if the bitboard has only one bit set to 1
      */
-    public static boolean hasOnly1Bit(Long bb) {
+    public static boolean hasOnly1Bit(long bb) {
         return bb != 0L && extractLsb(bb) == 0L;
     }
 
@@ -455,8 +703,20 @@ public class Bitboard {
      * @return the bitboard of bishop movement attacks
      */
     public static long getBishopAttacks(long mask, Square square) {
-        return getSliderAttacks(diagA1H8Attacks[square.ordinal()], mask, square.ordinal()) |
-                getSliderAttacks(diagH1A8Attacks[square.ordinal()], mask, square.ordinal());
+        if (magicEnabled) {
+            return getBishopMagicAttacks(mask, square.ordinal());
+        }
+        return getBishopRayAttacks(mask, square.ordinal());
+    }
+
+    private static long getBishopMagicAttacks(long mask, int index) {
+        return bishopTable[bishopOffsets[index] +
+                (int) (((mask & bishopMasks[index]) * bishopMagics[index]) >>> bishopShifts[index])];
+    }
+
+    private static long getBishopRayAttacks(long mask, int index) {
+        return getSliderAttacks(diagA1H8Attacks[index], mask, index) |
+                getSliderAttacks(diagH1A8Attacks[index], mask, index);
     }
 
     /**
@@ -469,8 +729,20 @@ public class Bitboard {
      * @return the bitboard of rook movement attacks
      */
     public static long getRookAttacks(long mask, Square square) {
-        return getSliderAttacks(fileAttacks[square.ordinal()], mask, square.ordinal()) |
-                getSliderAttacks(rankAttacks[square.ordinal()], mask, square.ordinal());
+        if (magicEnabled) {
+            return getRookMagicAttacks(mask, square.ordinal());
+        }
+        return getRookRayAttacks(mask, square.ordinal());
+    }
+
+    private static long getRookMagicAttacks(long mask, int index) {
+        return rookTable[rookOffsets[index] +
+                (int) (((mask & rookMasks[index]) * rookMagics[index]) >>> rookShifts[index])];
+    }
+
+    private static long getRookRayAttacks(long mask, int index) {
+        return getSliderAttacks(fileAttacks[index], mask, index) |
+                getSliderAttacks(rankAttacks[index], mask, index);
     }
 
     private static long getSliderAttacks(long attacks, long mask, int index) {
@@ -19,20 +19,27 @@ package com.github.bhlangonijr.chesslib;
 import static com.github.bhlangonijr.chesslib.Bitboard.extractLsb;
 import static com.github.bhlangonijr.chesslib.Constants.emptyMove;
 
-import java.util.ArrayList;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
+import com.github.bhlangonijr.chesslib.eval.IncrementalEvaluator;
 import com.github.bhlangonijr.chesslib.game.GameContext;
 import com.github.bhlangonijr.chesslib.move.Move;
 import com.github.bhlangonijr.chesslib.move.MoveGenerator;
 import com.github.bhlangonijr.chesslib.move.MoveList;
+import com.github.bhlangonijr.chesslib.move.PackedMove;
 import com.github.bhlangonijr.chesslib.util.XorShiftRandom;
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,7 +47,7 @@ import org.apache.commons.lang3.StringUtils;
  * The definition of a chessboard position and its status. It exposes methods to manipulate the board, evolve the
  * position moving pieces around, revert already performed moves, and retrieve the status of the current configuration
  * on the board. Furthermore, it offers a handy way for loading a position from a Forsyth-Edwards Notation (FEN) string
- * and exporting it in the same format.
+ * and exporting it in the same format, as well as a compact binary encoding for storing positions efficiently.
  * <p>
  * Each position in uniquely identified by hashes that could be retrieved using {@link Board#getIncrementalHashKey()}
  * and {@link Board#getZobristKey()} methods. Also, the implementation supports comparison against other board instances
@@ -53,34 +60,82 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class Board implements Cloneable, BoardEvent {
 
-    private static final List<Long> keys = new ArrayList<>();
+    /**
+     * The maximum length of the Forsyth-Edwards Notation (FEN) representation of a position, including the move
+     * counters.
+     */
+    public static final int MAX_FEN_LENGTH = 128;
+
+    /**
+     * The length in bytes of the compact binary encoding of a position.
+     *
+     * @see Board#writeBinary(ByteBuffer)
+     */
+    public static final int ENCODED_POSITION_LENGTH = 32;
+
+    /**
+     * The game phase of the starting position, when all the knights, bishops, rooks and queens are on the board.
+     *
+     * @see Board#getGamePhase()
+     */
+    public static final int MAX_GAME_PHASE = 24;
+
     private static final long RANDOM_SEED = 49109794719L;
     private static final int ZOBRIST_TABLE_SIZE = 2000;
+    private static final long[] keys = new long[ZOBRIST_TABLE_SIZE];
+    private static final int INITIAL_HISTORY_CAPACITY = 256;
+    private static final int INITIAL_BACKUP_CAPACITY = 256;
+    private static final ThreadLocal<char[]> fenBuffer = ThreadLocal.withInitial(() -> new char[MAX_FEN_LENGTH]);
+    // the captures in a sequence of exchanges on a square, at most one per piece on the board
+    private static final ThreadLocal<int[]> exchangeBuffer = ThreadLocal.withInitial(() -> new int[32]);
+    private static final int[] exchangeValues = {100, 325, 325, 500, 1000, 20000, 0};
+    private static final PieceType[] exchangeOrder = {
+            PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+    // weights of the pieces in the game phase, indexed by piece ordinal
+    private static final int[] phaseWeights = {0, 1, 1, 2, 4, 0, 0, 1, 1, 2, 4, 0, 0};
+    private static final int MATERIAL_KEY_BITS = 4;
+    /*
+     * disjoint ranges of the zobrist table, so that no two features of a position share the same key
+     */
+    private static final int CASTLE_RIGHT_KEYS = Piece.allPieces.length * 64;
+    private static final int EN_PASSANT_KEYS = CASTLE_RIGHT_KEYS + Side.allSides.length * CastleRight.values().length;
+    private static final int SIDE_KEYS = EN_PASSANT_KEYS + Square.values().length;
 
     static {
         final XorShiftRandom random = new XorShiftRandom(RANDOM_SEED);
         for (int i = 0; i < ZOBRIST_TABLE_SIZE; i++) {
-            long key = random.nextLong();
-            keys.add(key);
+            keys[i] = random.nextLong();
         }
     }
 
-    private final LinkedList<MoveBackup> backup;
+    private final List<MoveBackup> backupView = new BackupView();
+    private MoveBackup[] backup;
+    private int backupSize;
     private final EnumMap<BoardEventType, List<BoardEventListener>> eventListener;
     private final long[] bitboard;
     private final long[] bbSide;
     private final Piece[] occupation;
+    private final int[] pieceCount;
     private final EnumMap<Side, CastleRight> castleRight;
-    private final LinkedList<Long> history = new LinkedList<>();
+    private final List<Long> historyView = new HistoryView();
+    private long[] history = new long[INITIAL_HISTORY_CAPACITY];
+    private int historySize;
     private Side sideToMove;
     private Square enPassantTarget;
     private Square enPassant;
-    private Integer moveCounter;
-    private Integer halfMoveCounter;
+    private int moveCounter;
+    private int halfMoveCounter;
     private GameContext context;
     private boolean enableEvents;
     private final boolean updateHistory;
     private long incrementalHashKey;
+    private long materialKey;
+    private int gamePhase;
+    private IncrementalEvaluator evaluator;
+    private BoardStatus status;
+    private long statusKey;
+    private int statusHalfMoveCounter;
 
     /**
      * Constructs a new board using a default game context. The board will keep its history updated, that is, will store
@@ -100,12 +155,37 @@ public class Board implements Cloneable, BoardEvent {
      * @param updateHistory whether to keep the history updated or not
      */
     public Board(GameContext gameContext, boolean updateHistory) {
+        this(gameContext, updateHistory, true);
+    }
+
+    /**
+     * Constructs a new board, using the game context provided in input, and choosing whether board events are
+     * notified or not. A board created with events disabled is meant for bulk computations, such as searches or perft
+     * runs: it skips the lookup and the notification of the event listeners on every move, while applying exactly the
+     * same rules. Events can still be enabled later using {@link Board#setEnableEvents(boolean)}.
+     * <p>
+     * When history updates are enabled, the board keeps the hashes of all positions encountered, which are needed to
+     * detect repetitions.
+     *
+     * @param gameContext   the game context to use for this board
+     * @param updateHistory whether to keep the history updated or not
+     * @param enableEvents  whether the notification of board events is enabled or not
+     */
+    public Board(GameContext gameContext, boolean updateHistory, boolean enableEvents) {
+        this(gameContext, updateHistory, enableEvents, true);
+    }
+
+    /*
+     * the position is left empty when the start position is not loaded, as the board is expected to be overwritten
+     */
+    private Board(GameContext gameContext, boolean updateHistory, boolean enableEvents, boolean loadStartPosition) {
 
         bitboard = new long[Piece.allPieces.length];
         bbSide = new long[Side.allSides.length];
         occupation = new Piece[Square.values().length];
+        pieceCount = new int[Piece.allPieces.length];
         castleRight = new EnumMap<>(Side.class);
-        backup = new LinkedList<>();
+        backup = new MoveBackup[INITIAL_BACKUP_CAPACITY];
         context = gameContext;
         eventListener = new EnumMap<>(BoardEventType.class);
         this.updateHistory = updateHistory;
@@ -117,8 +197,14 @@ public class Board implements Cloneable, BoardEvent {
         for (BoardEventType evt : BoardEventType.values()) {
             eventListener.put(evt, new CopyOnWriteArrayList<>());
         }
-        loadFromFen(gameContext.getStartFEN());
-        setEnableEvents(true);
+        if (loadStartPosition) {
+            loadFromFen(gameContext.getStartFEN());
+        } else {
+            Arrays.fill(occupation, Piece.NONE);
+            castleRight.put(Side.WHITE, CastleRight.NONE);
+            castleRight.put(Side.BLACK, CastleRight.NONE);
+        }
+        setEnableEvents(enableEvents);
     }
 
     /*
@@ -215,20 +301,24 @@ public class Board implements Cloneable, BoardEvent {
         if (!isMoveLegal(move, fullValidation)) {
             return false;
         }
+        return applyMove(move);
+    }
+
+    private boolean applyMove(final Move move) {
 
         Piece movingPiece = getPiece(move.getFrom());
         Side side = getSideToMove();
 
-        MoveBackup backupMove = new MoveBackup(this, move);
-        final boolean isCastle = context.isCastleMove(move);
+        MoveBackup backupMove = nextBackup();
+        backupMove.makeBackup(this, move);
 
         incrementalHashKey ^= getSideKey(getSideToMove());
         if (getEnPassantTarget() != Square.NONE) {
             incrementalHashKey ^= getEnPassantKey(getEnPassantTarget());
         }
 
-        if (PieceType.KING.equals(movingPiece.getPieceType())) {
-            if (isCastle) {
+        if (PieceType.KING == movingPiece.getPieceType()) {
+            if (backupMove.isCastleMove()) {
                 if (context.hasCastleRight(move, getCastleRight(side))) {
                     CastleRight c = context.isKingSideCastle(move) ? CastleRight.KING_SIDE :
                             CastleRight.QUEEN_SIDE;
@@ -325,10 +415,10 @@ public class Board implements Cloneable, BoardEvent {
         incrementalHashKey ^= getSideKey(getSideToMove());
 
         if (updateHistory) {
-            getHistory().addLast(getIncrementalHashKey());
+            pushHistory(getIncrementalHashKey());
         }
 
-        backup.add(backupMove);
+        backupSize++;
         // call listeners
         if (isEnableEvents() && eventListener.get(BoardEventType.ON_MOVE).size() > 0) {
             for (BoardEventListener evl : eventListener.get(BoardEventType.ON_MOVE)) {
@@ -338,6 +428,49 @@ public class Board implements Cloneable, BoardEvent {
         return true;
     }
 
+    /**
+     * Executes a move, packed into a primitive {@code int} value, on the board without performing a full validation of
+     * the position. It returns {@code true} if the operation has been successful and the position changed after the
+     * move.
+     * <p>
+     * Same as invoking {@code doMove(move, false)}.
+     *
+     * @param move the packed move to execute
+     * @return {@code true} if the move was successful and the resulting position is valid
+     * @see #doMove(int, boolean)
+     * @see PackedMove
+     */
+    public boolean doMove(final int move) {
+        return doMove(move, false);
+    }
+
+    /**
+     * Executes a move, packed into a primitive {@code int} value, on the board. It returns {@code true} if the operation
+     * has been successful and the position changed after the move. Packed moves are typically obtained from the
+     * array-based methods of {@link MoveGenerator}, and they can be reverted using {@link Board#undoMove()}.
+     * <p>
+     * The packed move is checked for legality directly, then it is unpacked into its shared {@link Move} instance (see
+     * {@link PackedMove#toMove(int)}) and executed as {@link Board#doMove(Move, boolean)} would do, so that the move
+     * backup and the {@link BoardEventType#ON_MOVE} listeners receive the same move in both cases. No allocation is
+     * performed, but the flags of the packed move are ignored: captures, en passant captures and castle moves are
+     * detected from the position, as the flags are informative only and not set on every packed move.
+     *
+     * @param move           the packed move to execute
+     * @param fullValidation whether to perform a full validation of the position or not
+     * @return {@code true} if the move was successful and the resulting position is valid
+     * @see #doMove(Move, boolean)
+     * @see PackedMove
+     */
+    public boolean doMove(final int move, boolean fullValidation) {
+        if (fullValidation) {
+            return doMove(PackedMove.toMove(move), true);
+        }
+        if (!isMoveLegal(move, false)) {
+            return false;
+        }
+        return applyMove(PackedMove.toMove(move));
+    }
+
     /**
      * Executes a <i>null</i> move on the board. It returns {@code true} if the operation has been successful.
      * <p>
@@ -350,10 +483,14 @@ public class Board implements Cloneable, BoardEvent {
     public boolean doNullMove() {
 
         Side side = getSideToMove();
-        MoveBackup backupMove = new MoveBackup(this, emptyMove);
+        MoveBackup backupMove = nextBackup();
+        backupMove.makeBackup(this, emptyMove);
 
         setHalfMoveCounter(getHalfMoveCounter() + 1);
 
+        if (getEnPassantTarget() != Square.NONE) {
+            incrementalHashKey ^= getEnPassantKey(getEnPassantTarget());
+        }
         setEnPassantTarget(Square.NONE);
         setEnPassant(Square.NONE);
 
@@ -361,9 +498,9 @@ public class Board implements Cloneable, BoardEvent {
         setSideToMove(side.flip());
         incrementalHashKey ^= getSideKey(getSideToMove());
         if (updateHistory) {
-            getHistory().addLast(getIncrementalHashKey());
+            pushHistory(getIncrementalHashKey());
         }
-        backup.add(backupMove);
+        backupSize++;
         return true;
     }
 
@@ -375,9 +512,12 @@ public class Board implements Cloneable, BoardEvent {
      */
     public Move undoMove() {
         Move move = null;
-        final MoveBackup b = backup.removeLast();
+        if (backupSize == 0) {
+            throw new NoSuchElementException();
+        }
+        final MoveBackup b = backup[--backupSize];
         if (updateHistory) {
-            getHistory().removeLast();
+            popHistory();
         }
         if (b != null) {
             move = b.getMove();
@@ -564,6 +704,44 @@ public class Board implements Cloneable, BoardEvent {
         return Square.NONE;
     }
 
+    /**
+     * Returns the number of pieces of a given side and type on the board. The count is maintained incrementally as
+     * pieces are set and unset, hence the operation takes constant time.
+     *
+     * @param piece the piece to count
+     * @return the number of pieces of the given type on the board
+     */
+    public int getPieceCount(Piece piece) {
+        return pieceCount[piece.ordinal()];
+    }
+
+    /**
+     * Returns the material signature of the position, that is, a key identifying the number of pieces of each side
+     * and type on the board, regardless of where they are placed. The count of each piece is stored in 4 bits, at the
+     * offset given by the ordinal of the piece (e.g. the count of white knights in bits 4-7), so that positions can be
+     * grouped by material and the counts can be decoded from the key. The key is unique for all the positions holding
+     * at most 15 pieces of each kind, which includes all the positions reachable in a game.
+     * <p>
+     * Like the piece counts, the key is maintained incrementally and retrieved in constant time.
+     *
+     * @return the material signature of the position
+     */
+    public long getMaterialKey() {
+        return materialKey;
+    }
+
+    /**
+     * Returns the game phase of the position, computed from the knights and the bishops (1 point each), the rooks (2
+     * points each) and the queens (4 points each) on the board. The phase is {@link Board#MAX_GAME_PHASE} in the
+     * starting position and decreases as pieces are captured, down to zero when only kings and pawns are left. It can
+     * exceed {@link Board#MAX_GAME_PHASE} after promotions.
+     *
+     * @return the game phase of the position
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
     /**
      * Returns the next side to move.
      *
@@ -629,7 +807,7 @@ public class Board implements Cloneable, BoardEvent {
      *
      * @return the counter of full moves
      */
-    public Integer getMoveCounter() {
+    public int getMoveCounter() {
         return moveCounter;
     }
 
@@ -639,7 +817,7 @@ public class Board implements Cloneable, BoardEvent {
      * @param moveCounter the counter of full moves to set
      * @see Board#getMoveCounter()
      */
-    public void setMoveCounter(Integer moveCounter) {
+    public void setMoveCounter(int moveCounter) {
         this.moveCounter = moveCounter;
     }
 
@@ -649,7 +827,7 @@ public class Board implements Cloneable, BoardEvent {
      *
      * @return the counter of half moves
      */
-    public Integer getHalfMoveCounter() {
+    public int getHalfMoveCounter() {
         return halfMoveCounter;
     }
 
@@ -659,7 +837,7 @@ public class Board implements Cloneable, BoardEvent {
      * @param halfMoveCounter the counter of half moves to set
      * @see Board#getHalfMoveCounter()
      */
-    public void setHalfMoveCounter(Integer halfMoveCounter) {
+    public void setHalfMoveCounter(int halfMoveCounter) {
         this.halfMoveCounter = halfMoveCounter;
     }
 
@@ -701,12 +879,68 @@ public class Board implements Cloneable, BoardEvent {
     }
 
     /**
-     * Returns the current ordered list of move backups generated from the moves performed on the board.
+     * Returns the incremental evaluator attached to the board, if any.
      *
-     * @return the list of move backups
+     * @return the incremental evaluator, or {@code null} if no evaluator is attached
+     */
+    public IncrementalEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Attaches an incremental evaluator to the board, replacing the previous one. The evaluator is reset to the
+     * current position, and from then on it is notified of every piece set or unset on the board, including the ones
+     * performed when moves are executed or reverted, so that its score never needs to be recomputed from scratch.
+     * <p>
+     * An evaluator holds the state of a single board, hence it must not be shared among boards. Evaluators are not
+     * copied by {@link Board#clone()}.
+     *
+     * @param evaluator the incremental evaluator to attach, or {@code null} to detach the current one
+     */
+    public void setEvaluator(IncrementalEvaluator evaluator) {
+        this.evaluator = evaluator;
+        if (evaluator != null) {
+            evaluator.reset(this);
+        }
+    }
+
+    /**
+     * Returns a copy of the current ordered list of move backups generated from the moves performed on the board.
+     * Since the board keeps its backups in a pooled undo stack, modifications of the returned list are not reflected
+     * on the board, and the backups it contains are reused once their moves are reverted.
+     *
+     * @return a copy of the list of move backups
+     * @deprecated the method copies the whole undo stack, use {@link Board#getBackupView()} instead
      */
+    @Deprecated
     public LinkedList<MoveBackup> getBackup() {
-        return backup;
+        return new LinkedList<>(backupView);
+    }
+
+    /**
+     * Returns the current ordered list of move backups generated from the moves performed on the board. The returned
+     * list is a read-only view of the undo stack of the board, whose backups are reused once their moves are reverted.
+     *
+     * @return the list of move backups
+     */
+    public List<MoveBackup> getBackupView() {
+        return backupView;
+    }
+
+    /*
+     * returns the backup on top of the undo stack, growing the stack if needed. The backup is pushed only when the
+     * size of the stack is incremented
+     */
+    private MoveBackup nextBackup() {
+        if (backupSize == backup.length) {
+            backup = Arrays.copyOf(backup, Math.max(INITIAL_BACKUP_CAPACITY, backupSize * 2));
+        }
+        MoveBackup moveBackup = backup[backupSize];
+        if (moveBackup == null) {
+            moveBackup = new MoveBackup();
+            backup[backupSize] = moveBackup;
+        }
+        return moveBackup;
     }
 
     /**
@@ -718,13 +952,20 @@ public class Board implements Cloneable, BoardEvent {
         setEnPassant(Square.NONE);
         setMoveCounter(0);
         setHalfMoveCounter(0);
-        getHistory().clear();
+        historySize = 0;
+        status = null;
 
         Arrays.fill(bitboard, 0L);
         Arrays.fill(bbSide, 0L);
         Arrays.fill(occupation, Piece.NONE);
-        backup.clear();
+        Arrays.fill(pieceCount, 0);
+        backupSize = 0;
         incrementalHashKey = 0;
+        materialKey = 0L;
+        gamePhase = 0;
+        if (evaluator != null) {
+            evaluator.reset(this);
+        }
     }
 
     /**
@@ -741,6 +982,12 @@ public class Board implements Cloneable, BoardEvent {
         occupation[sq.ordinal()] = piece;
         if (piece != Piece.NONE && sq != Square.NONE) {
             incrementalHashKey ^= getPieceSquareKey(piece, sq);
+            pieceCount[piece.ordinal()]++;
+            materialKey += 1L << (MATERIAL_KEY_BITS * piece.ordinal());
+            gamePhase += phaseWeights[piece.ordinal()];
+            if (evaluator != null) {
+                evaluator.pieceAdded(piece, sq);
+            }
         }
     }
 
@@ -756,86 +1003,93 @@ public class Board implements Cloneable, BoardEvent {
         occupation[sq.ordinal()] = Piece.NONE;
         if (piece != Piece.NONE && sq != Square.NONE) {
             incrementalHashKey ^= getPieceSquareKey(piece, sq);
+            pieceCount[piece.ordinal()]--;
+            materialKey -= 1L << (MATERIAL_KEY_BITS * piece.ordinal());
+            gamePhase -= phaseWeights[piece.ordinal()];
+            if (evaluator != null) {
+                evaluator.pieceRemoved(piece, sq);
+            }
         }
     }
 
     /**
      * Loads a specific chess position from a valid Forsyth-Edwards Notation (FEN) string. The status of the current
      * board is replaced with the one of the FEN string (e.g. en passant squares, castle rights, etc.).
+     * <p>
+     * The piece placement and the side to move are mandatory, while castle rights, en passant square and move counters
+     * can be omitted. Any content following the move counters, or following the en passant square when the counters
+     * are not numeric (e.g. the operations of an EPD line), is ignored.
      *
      * @param fen the FEN string representing the chess position to load
+     * @throws FenException if the FEN string is malformed
      */
-    public void loadFromFen(String fen) {
+    public void loadFromFen(CharSequence fen) {
         clear();
-        String squares = fen.substring(0, fen.indexOf(' '));
-        String state = fen.substring(fen.indexOf(' ') + 1);
-
-        String[] ranks = squares.split("/");
-        int file;
-        int rank = 7;
-        for (String r : ranks) {
-            file = 0;
-            for (int i = 0; i < r.length(); i++) {
-                char c = r.charAt(i);
-                if (Character.isDigit(c)) {
-                    file += Character.digit(c, 10);
-                } else {
-                    Square sq = Square.encode(Rank.allRanks[rank], File.allFiles[file]);
-                    setPiece(Piece.fromFenSymbol(String.valueOf(c)), sq);
-                    file++;
-                }
-            }
-            rank--;
-        }
-
-        sideToMove = state.toLowerCase().charAt(0) == 'w' ? Side.WHITE : Side.BLACK;
-
-        if (state.contains("KQ")) {
-            castleRight.put(Side.WHITE, CastleRight.KING_AND_QUEEN_SIDE);
-        } else if (state.contains("K")) {
-            castleRight.put(Side.WHITE, CastleRight.KING_SIDE);
-        } else if (state.contains("Q")) {
-            castleRight.put(Side.WHITE, CastleRight.QUEEN_SIDE);
-        } else {
-            castleRight.put(Side.WHITE, CastleRight.NONE);
-        }
+        FenCodec.read(fen, this);
+        completeLoad();
+    }
 
-        if (state.contains("kq")) {
-            castleRight.put(Side.BLACK, CastleRight.KING_AND_QUEEN_SIDE);
-        } else if (state.contains("k")) {
-            castleRight.put(Side.BLACK, CastleRight.KING_SIDE);
-        } else if (state.contains("q")) {
-            castleRight.put(Side.BLACK, CastleRight.QUEEN_SIDE);
-        } else {
-            castleRight.put(Side.BLACK, CastleRight.NONE);
-        }
+    /**
+     * Loads a specific chess position from its compact binary encoding, reading {@link Board#ENCODED_POSITION_LENGTH}
+     * bytes from the current position of the buffer and advancing it. The status of the current board is replaced with
+     * the one of the encoded position.
+     * <p>
+     * The encoding is the one produced by {@link Board#writeBinary(ByteBuffer)}, and it is independent of the byte
+     * order of the buffer. The encoding is validated before the current status is replaced, hence neither the board
+     * nor the buffer are modified if an exception is thrown.
+     *
+     * @param buffer the buffer to read the encoded position from
+     * @throws BufferUnderflowException if fewer than {@link Board#ENCODED_POSITION_LENGTH} bytes remain in the buffer
+     * @throws IllegalArgumentException if the encoding is invalid
+     */
+    public void loadFromBinary(ByteBuffer buffer) {
+        PositionCodec.read(buffer, this);
+        completeLoad();
+    }
 
-        String[] flags = state.split(StringUtils.SPACE);
+    /**
+     * Writes the compact binary encoding of the current position and its status into a buffer, starting at its current
+     * position and advancing it by {@link Board#ENCODED_POSITION_LENGTH} bytes. The encoding includes the piece
+     * placement, the side to move, the castle rights, the en passant square and the move counters, so that the
+     * position can be restored with {@link Board#loadFromBinary(ByteBuffer)}.
+     * <p>
+     * The encoding is canonical and independent of the byte order of the buffer, hence it is suitable for storing
+     * positions or sending them over the network. It is limited to positions with at most 32 pieces and a half-move
+     * counter lower than 65536.
+     *
+     * @param buffer the buffer to write the encoded position into
+     * @throws BufferOverflowException  if fewer than {@link Board#ENCODED_POSITION_LENGTH} bytes remain in the buffer
+     * @throws IllegalArgumentException if the position cannot be encoded
+     */
+    public void writeBinary(ByteBuffer buffer) {
+        PositionCodec.write(this, buffer);
+    }
 
-        if (flags.length >= 3) {
-            String s = flags[2].toUpperCase().trim();
-            if (!s.equals("-")) {
-                Square ep = Square.valueOf(s);
-                setEnPassant(ep);
-                setEnPassantTarget(findEnPassantTarget(ep, sideToMove));
-                if (!pawnCanBeCapturedEnPassant()) {
-                    setEnPassantTarget(Square.NONE);
-                }
-            } else {
-                setEnPassant(Square.NONE);
+    /*
+     * completes the loading of a position whose pieces and status have been just set on a cleared board, resolving
+     * the en passant target, computing the hash key and notifying the listeners
+     */
+    private void completeLoad() {
+        if (enPassant != Square.NONE) {
+            setEnPassantTarget(findEnPassantTarget(enPassant, sideToMove));
+            if (!pawnCanBeCapturedEnPassant()) {
                 setEnPassantTarget(Square.NONE);
             }
-            if (flags.length >= 4) {
-                halfMoveCounter = Integer.parseInt(flags[3]);
-                if (flags.length >= 5) {
-                    moveCounter = Integer.parseInt(flags[4]);
-                }
-            }
         }
 
-        incrementalHashKey = getZobristKey();
+        // the keys of the pieces have been already added by setPiece()
+        if (getCastleRight(Side.WHITE) != CastleRight.NONE) {
+            incrementalHashKey ^= getCastleRightKey(Side.WHITE);
+        }
+        if (getCastleRight(Side.BLACK) != CastleRight.NONE) {
+            incrementalHashKey ^= getCastleRightKey(Side.BLACK);
+        }
+        incrementalHashKey ^= getSideKey(sideToMove);
+        if (enPassantTarget != Square.NONE) {
+            incrementalHashKey ^= getEnPassantKey(enPassantTarget);
+        }
         if (updateHistory) {
-            getHistory().addLast(this.getZobristKey());
+            pushHistory(incrementalHashKey);
         }
         // call listeners
         if (isEnableEvents() &&
@@ -888,94 +1142,41 @@ public class Board implements Cloneable, BoardEvent {
      * @return the string that represents the current position in FEN notation
      */
     public String getFen(boolean includeCounters, boolean onlyOutputEnPassantIfCapturable) {
+        char[] buffer = fenBuffer.get();
+        return new String(buffer, 0, writeFen(buffer, 0, includeCounters, onlyOutputEnPassantIfCapturable));
+    }
 
-        StringBuffer fen = new StringBuffer();
-        int emptySquares = 0;
-        for (int i = 7; i >= 0; i--) {
-            Rank r = Rank.allRanks[i];
-            if (r == Rank.NONE) {
-                continue;
-            }
-            for (File f : File.allFiles) {
-                if (f == File.NONE) {
-                    continue;
-                }
-                Square sq = Square.encode(r, f);
-                Piece piece = getPiece(sq);
-                if (Piece.NONE.equals(piece)) {
-                    emptySquares++;
-                } else {
-                    if (emptySquares > 0) {
-                        fen.append(emptySquares);
-                        emptySquares = 0;
-                    }
-                    fen.append(piece.getFenSymbol());
-                }
-                if (f != File.FILE_H) {
-                    continue;
-                }
-                if (emptySquares > 0) {
-                    fen.append(emptySquares);
-                    emptySquares = 0;
-                }
-                if (r != Rank.RANK_1) {
-                    fen.append("/");
-                }
-            }
-        }
-
-        if (Side.WHITE.equals(sideToMove)) {
-            fen.append(" w");
-        } else {
-            fen.append(" b");
-        }
-
-        String rights = StringUtils.EMPTY;
-        if (CastleRight.KING_AND_QUEEN_SIDE.
-                equals(castleRight.get(Side.WHITE))) {
-            rights += "KQ";
-        } else if (CastleRight.KING_SIDE.
-                equals(castleRight.get(Side.WHITE))) {
-            rights += "K";
-        } else if (CastleRight.QUEEN_SIDE.
-                equals(castleRight.get(Side.WHITE))) {
-            rights += "Q";
-        }
-
-        if (CastleRight.KING_AND_QUEEN_SIDE.
-                equals(castleRight.get(Side.BLACK))) {
-            rights += "kq";
-        } else if (CastleRight.KING_SIDE.
-                equals(castleRight.get(Side.BLACK))) {
-            rights += "k";
-        } else if (CastleRight.QUEEN_SIDE.
-                equals(castleRight.get(Side.BLACK))) {
-            rights += "q";
-        }
-
-        if (StringUtils.isEmpty(rights)) {
-            fen.append(" -");
-        } else {
-            fen.append(StringUtils.SPACE + rights);
-        }
-
-        if (Square.NONE.equals(getEnPassant())
-                || (onlyOutputEnPassantIfCapturable
-                && !pawnCanBeCapturedEnPassant())) {
-            fen.append(" -");
-        } else {
-            fen.append(StringUtils.SPACE);
-            fen.append(getEnPassant().toString().toLowerCase());
-        }
-
-        if (includeCounters) {
-            fen.append(StringUtils.SPACE);
-            fen.append(getHalfMoveCounter());
-            fen.append(StringUtils.SPACE);
-            fen.append(getMoveCounter());
-        }
+    /**
+     * Appends the Forsyth-Edwards Notation (FEN) representation of the current position and its status to a string
+     * builder. The output is the same of {@link Board#getFen(boolean, boolean)}, but no intermediate string is created,
+     * so that the same builder can be reused for writing many positions.
+     *
+     * @param builder                         the string builder to append the FEN to
+     * @param includeCounters                 if {@code true}, move counters are included in the output
+     * @param onlyOutputEnPassantIfCapturable if {@code true}, the en passant square is included in the output only if
+     *                                        the pawn that just moved can be captured
+     * @return the string builder passed in input
+     */
+    public StringBuilder appendFen(StringBuilder builder, boolean includeCounters,
+                                   boolean onlyOutputEnPassantIfCapturable) {
+        char[] buffer = fenBuffer.get();
+        return builder.append(buffer, 0, writeFen(buffer, 0, includeCounters, onlyOutputEnPassantIfCapturable));
+    }
 
-        return fen.toString();
+    /**
+     * Writes the Forsyth-Edwards Notation (FEN) representation of the current position and its status into a character
+     * array, starting at the given offset. The output is the same of {@link Board#getFen(boolean, boolean)}. The array
+     * must have room for at least {@link Board#MAX_FEN_LENGTH} characters after the offset.
+     *
+     * @param buffer                          the array to write the FEN into
+     * @param offset                          the index of the array from which to start writing
+     * @param includeCounters                 if {@code true}, move counters are included in the output
+     * @param onlyOutputEnPassantIfCapturable if {@code true}, the en passant square is included in the output only if
+     *                                        the pawn that just moved can be captured
+     * @return the index of the array following the last character written
+     */
+    public int writeFen(char[] buffer, int offset, boolean includeCounters, boolean onlyOutputEnPassantIfCapturable) {
+        return FenCodec.write(this, buffer, offset, includeCounters, onlyOutputEnPassantIfCapturable);
     }
 
     /**
@@ -1132,6 +1333,115 @@ public class Board implements Cloneable, BoardEvent {
         return result;
     }
 
+    /**
+     * Computes the static exchange evaluation (SEE) of a move, that is, the material balance of the sequence of
+     * captures on the destination square of the move, assuming that both sides always recapture with their least
+     * valuable attacker and may stop capturing when it is not profitable. Attacks of sliding pieces discovered along
+     * the sequence (x-rays) are taken into account, while pins and checks are not.
+     * <p>
+     * The material is measured in centipawns, with the following values: 100 for pawns, 325 for knights and bishops,
+     * 500 for rooks and 1000 for queens. Kings are valued 20000, so that moving the king to a defended square results in
+     * a large loss. A positive result means that the move wins material, a negative one that it loses material. En
+     * passant captures and promotions are supported, as well as non-capturing moves, that are evaluated as the moving
+     * piece possibly being captured on its destination square.
+     *
+     * @param move the move to evaluate, that must be pseudo-legal in the current position
+     * @return the material balance of the exchange, from the point of view of the side moving
+     */
+    public int staticExchangeEvaluation(Move move) {
+        final Square from = move.getFrom();
+        final Square to = move.getTo();
+        final Piece piece = getPiece(from);
+        if (piece == Piece.NONE) {
+            return 0;
+        }
+        final Side side = piece.getPieceSide();
+        long occ = getBitboard() ^ from.getBitboard();
+        int captured = exchangeValue(getPiece(to));
+        if (piece.getPieceType() == PieceType.PAWN && getPiece(to) == Piece.NONE && from.getFile() != to.getFile()) {
+            // en passant capture, the captured pawn is behind the destination square
+            occ ^= Square.squareAt(to.ordinal() + (side == Side.WHITE ? -8 : 8)).getBitboard();
+            captured = exchangeValue(Piece.WHITE_PAWN);
+        }
+        int onSquare = exchangeValue(piece);
+        if (move.getPromotion() != Piece.NONE) {
+            onSquare = exchangeValue(move.getPromotion());
+            captured += onSquare - exchangeValue(Piece.WHITE_PAWN);
+        }
+        return captured - exchange(to, side.flip(), occ, onSquare);
+    }
+
+    /**
+     * Computes the static exchange evaluation (SEE) of a square, that is, the material the given side can win
+     * starting a sequence of captures of the enemy piece standing on the square, with the same assumptions of
+     * {@link Board#staticExchangeEvaluation(Move)}. Since the side is not forced to capture, the result is never
+     * negative.
+     *
+     * @param square the square to evaluate
+     * @param side   the side starting the captures
+     * @return the material the side can win on the square, in centipawns, or zero if the square is not occupied by an
+     * enemy piece or no profitable capture is available
+     * @see Board#staticExchangeEvaluation(Move)
+     */
+    public int staticExchangeEvaluation(Square square, Side side) {
+        final Piece piece = getPiece(square);
+        if (piece == Piece.NONE || piece.getPieceSide() == side) {
+            return 0;
+        }
+        return exchange(square, side, getBitboard(), exchangeValue(piece));
+    }
+
+    /*
+     * swap algorithm: returns the best gain the side can obtain capturing the piece of the given value on the square,
+     * or zero when the side has no attacker or prefers not to capture. Removing the attackers from the occupancy
+     * discloses the sliders behind them when the attackers are recomputed.
+     */
+    private int exchange(Square square, Side side, long occ, int value) {
+        final int[] gain = exchangeBuffer.get();
+        long attackers = (squareAttackedBy(square, Side.WHITE, occ) | squareAttackedBy(square, Side.BLACK, occ)) & occ;
+        int depth = 0;
+        Side stm = side;
+        while (true) {
+            long ours = attackers & bbSide[stm.ordinal()];
+            if (ours == 0L) {
+                break;
+            }
+            PieceType type = PieceType.KING;
+            for (PieceType t : exchangeOrder) {
+                long pieces = ours & bitboard[Piece.make(stm, t).ordinal()];
+                if (pieces != 0L) {
+                    type = t;
+                    ours = pieces;
+                    break;
+                }
+            }
+            long nextOcc = occ ^ (ours & -ours);
+            long nextAttackers = (squareAttackedBy(square, Side.WHITE, nextOcc) |
+                    squareAttackedBy(square, Side.BLACK, nextOcc)) & nextOcc;
+            if (type == PieceType.KING && (nextAttackers & bbSide[stm.flip().ordinal()]) != 0L) {
+                // the king can not capture a defended piece
+                break;
+            }
+            gain[depth] = value - (depth > 0 ? gain[depth - 1] : 0);
+            depth++;
+            occ = nextOcc;
+            attackers = nextAttackers;
+            value = exchangeValues[type.ordinal()];
+            stm = stm.flip();
+        }
+        if (depth == 0) {
+            return 0;
+        }
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return Math.max(0, gain[0]);
+    }
+
+    private static int exchangeValue(Piece piece) {
+        return piece == Piece.NONE ? 0 : exchangeValues[piece.getPieceType().ordinal()];
+    }
+
     /**
      * Returns the square occupied by the king of the given side.
      *
@@ -1243,17 +1553,125 @@ public class Board implements Cloneable, BoardEvent {
                 }
             }
         }
+        return isKingSafeAfterMove(side, move.getFrom(), move.getTo(), fromType);
+    }
+
+    /**
+     * Verifies if the move, packed into a primitive {@code int} value, will leave the resulting board in a valid (legal)
+     * position. Optionally, it can perform a full validation, a stricter check to assess if the final board
+     * configuration could be considered valid or not.
+     * <p>
+     * When a full validation is not requested, the check does not allocate any object.
+     *
+     * @param move           the packed move to validate
+     * @param fullValidation performs a full validation of the move
+     * @return {@code true} if the move is considered valid
+     * @see Board#isMoveLegal(Move, boolean)
+     * @see PackedMove
+     */
+    public boolean isMoveLegal(int move, boolean fullValidation) {
+        if (fullValidation) {
+            return isMoveLegal(PackedMove.toMove(move), true);
+        }
+        Square from = PackedMove.getFrom(move);
+        return isKingSafeAfterMove(getSideToMove(), from, PackedMove.getTo(move), getPiece(from).getPieceType());
+    }
+
+    /**
+     * Verifies if a move is legal in the current position according to the standard rules of chess, without
+     * generating all the legal moves. The method checks that the moving piece belongs to the side to move, that the
+     * destination square can be reached according to the movement pattern of the piece and that the path is free,
+     * that the promotion piece is set if and only if a pawn reaches the last rank, the castle rights and the en passant
+     * square, and finally that the king of the side to move is not left in check.
+     * <p>
+     * The result is consistent with the moves returned by {@link MoveGenerator#generateLegalMoves(Board)}: a move is
+     * legal if and only if it is equal to any of the generated moves.
+     *
+     * @param move the move to verify
+     * @return {@code true} if the move is legal
+     * @see Board#isMoveLegal(Move, boolean)
+     */
+    public boolean isLegal(Move move) {
+        final Square from = move.getFrom();
+        final Square to = move.getTo();
+        if (from == Square.NONE || to == Square.NONE || from == to) {
+            return false;
+        }
+        final Side side = getSideToMove();
+        final Piece piece = getPiece(from);
+        if (piece == Piece.NONE || piece.getPieceSide() != side || (getBitboard(side) & to.getBitboard()) != 0L) {
+            return false;
+        }
+        final PieceType type = piece.getPieceType();
+        final Piece promotion = move.getPromotion();
+        final long occ = getBitboard();
+        final long targets;
+        switch (type) {
+            case PAWN:
+                boolean promoting = to.getRank() == (side == Side.WHITE ? Rank.RANK_8 : Rank.RANK_1);
+                if (promoting != (promotion != Piece.NONE) || (promoting && (promotion.getPieceSide() != side ||
+                        promotion.getPieceType() == PieceType.PAWN || promotion.getPieceType() == PieceType.KING))) {
+                    return false;
+                }
+                targets = Bitboard.getPawnMoves(side, from, occ) |
+                        Bitboard.getPawnCaptures(side, from, occ, getEnPassantTarget());
+                break;
+            case KNIGHT:
+                targets = Bitboard.getKnightAttacks(from, ~0L);
+                break;
+            case BISHOP:
+                targets = Bitboard.getBishopAttacks(occ, from);
+                break;
+            case ROOK:
+                targets = Bitboard.getRookAttacks(occ, from);
+                break;
+            case QUEEN:
+                targets = Bitboard.getQueenAttacks(occ, from);
+                break;
+            case KING:
+                targets = Bitboard.getKingAttacks(from, ~0L);
+                if (promotion == Piece.NONE && (targets & to.getBitboard()) == 0L) {
+                    return isCastleLegal(move, side);
+                }
+                break;
+            default:
+                return false;
+        }
+        if (type != PieceType.PAWN && promotion != Piece.NONE) {
+            return false;
+        }
+        return (targets & to.getBitboard()) != 0L && isKingSafeAfterMove(side, from, to, type);
+    }
+
+    private boolean isCastleLegal(Move move, Side side) {
+        final CastleRight castleRight = getCastleRight(side);
+        if (move.equals(getContext().getoo(side))) {
+            return (castleRight == CastleRight.KING_AND_QUEEN_SIDE || castleRight == CastleRight.KING_SIDE) &&
+                    (getBitboard() & getContext().getooAllSquaresBb(side)) == 0L &&
+                    !isKingAttacked() &&
+                    !isSquareAttackedBy(getContext().getooSquares(side), side.flip());
+        }
+        if (move.equals(getContext().getooo(side))) {
+            return (castleRight == CastleRight.KING_AND_QUEEN_SIDE || castleRight == CastleRight.QUEEN_SIDE) &&
+                    (getBitboard() & getContext().getoooAllSquaresBb(side)) == 0L &&
+                    !isKingAttacked() &&
+                    !isSquareAttackedBy(getContext().getoooSquares(side), side.flip());
+        }
+        return false;
+    }
+
+    private boolean isKingSafeAfterMove(Side side, Square from, Square to, PieceType fromType) {
         if (fromType.equals(PieceType.KING)) {
-            if (squareAttackedBy(move.getTo(), side.flip()) != 0L) {
+            if (squareAttackedBy(to, side.flip()) != 0L) {
                 return false;
             }
         }
         Square kingSq = (fromType.equals(PieceType.KING) ?
-                move.getTo() : getKingSquare(side));
+                to : getKingSquare(side));
         Side other = side.flip();
-        long moveTo = move.getTo().getBitboard();
-        long moveFrom = move.getFrom().getBitboard();
-        long ep = getEnPassantTarget() != Square.NONE && move.getTo() == getEnPassant() &&
+        long moveTo = to.getBitboard();
+        long moveFrom = from.getBitboard();
+        long ep = getEnPassantTarget() != Square.NONE && to == getEnPassant() &&
                 (fromType.equals(PieceType.PAWN)) ? getEnPassantTarget().getBitboard() : 0;
         long allPieces = (getBitboard() ^ moveFrom ^ ep) | moveTo;
 
@@ -1330,13 +1748,80 @@ public class Board implements Cloneable, BoardEvent {
     }
 
     /**
-     * Returns the history of the board, represented by the hashes of all the positions occurred on the board.
+     * Returns a copy of the history of the board, represented by the hashes of all the positions occurred on the board.
+     * Modifications of the returned list are not reflected on the board.
      *
-     * @return the list of hashes of all the positions occurred on the board
+     * @return a copy of the list of hashes of all the positions occurred on the board
      * @see Board#getIncrementalHashKey()
+     * @deprecated the method copies and boxes the whole history, use {@link Board#getHistoryView()} instead
      */
+    @Deprecated
     public LinkedList<Long> getHistory() {
-        return history;
+        return new LinkedList<>(historyView);
+    }
+
+    /**
+     * Returns the history of the board, represented by the hashes of all the positions occurred on the board. The
+     * returned list is a read-only view of the history, which supports constant-time access by index.
+     *
+     * @return the list of hashes of all the positions occurred on the board
+     * @see Board#getIncrementalHashKey()
+     */
+    public List<Long> getHistoryView() {
+        return historyView;
+    }
+
+    private void pushHistory(long key) {
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+        }
+        history[historySize++] = key;
+        status = null;
+    }
+
+    private void popHistory() {
+        if (historySize == 0) {
+            throw new NoSuchElementException();
+        }
+        historySize--;
+        status = null;
+    }
+
+    /**
+     * Returns the status of the current position, that is, whether the game can continue, or it is over because of a
+     * checkmate, a stalemate, a threefold repetition, insufficient material or the fifty-move rule.
+     * <p>
+     * The status is computed in a single pass, generating the legal moves only once, and it is cached until the
+     * position changes, so that it can be cheaply queried many times after each move. When the game is over for more
+     * than one reason, a checkmate or a stalemate takes precedence over the other draw rules, that are checked in the
+     * order repetition, insufficient material and fifty-move rule.
+     *
+     * @return the status of the current position
+     * @see BoardStatus
+     */
+    public BoardStatus getStatus() {
+        if (status == null || statusKey != incrementalHashKey || statusHalfMoveCounter != halfMoveCounter) {
+            status = computeStatus();
+            statusKey = incrementalHashKey;
+            statusHalfMoveCounter = halfMoveCounter;
+        }
+        return status;
+    }
+
+    private BoardStatus computeStatus() {
+        if (!MoveGenerator.hasLegalMoves(this)) {
+            return isKingAttacked() ? BoardStatus.CHECKMATE : BoardStatus.STALEMATE;
+        }
+        if (isRepetition()) {
+            return BoardStatus.REPETITION;
+        }
+        if (isInsufficientMaterial()) {
+            return BoardStatus.INSUFFICIENT_MATERIAL;
+        }
+        if (getHalfMoveCounter() >= 100) {
+            return BoardStatus.FIFTY_MOVE_RULE;
+        }
+        return BoardStatus.ONGOING;
     }
 
     /**
@@ -1345,17 +1830,7 @@ public class Board implements Cloneable, BoardEvent {
      * @return {@code true} if the king of the side to move is checkmated
      */
     public boolean isMated() {
-        try {
-            if (isKingAttacked()) {
-                final List<Move> l = MoveGenerator.generateLegalMoves(this);
-                if (l.size() == 0) {
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        return false;
+        return getStatus() == BoardStatus.CHECKMATE;
     }
 
     /**
@@ -1367,21 +1842,13 @@ public class Board implements Cloneable, BoardEvent {
      *     <li>fifty-move rule;</li>
      *     <li>stalemate.</li>
      * </ul>
+     * A checkmate takes precedence over the rules above, hence a checkmated position is never a draw.
      *
      * @return {@code true} if the position is a draw
+     * @see Board#getStatus()
      */
     public boolean isDraw() {
-        if (isRepetition()) {
-            return true;
-        }
-        if (isInsufficientMaterial()) {
-            return true;
-        }
-        if (getHalfMoveCounter() >= 100) {
-            return true;
-        }
-        return isStaleMate();
-
+        return getStatus().isDraw();
     }
 
     /**
@@ -1392,13 +1859,14 @@ public class Board implements Cloneable, BoardEvent {
      */
     public boolean isRepetition(int n) {
 
-        final int i = Math.min(getHistory().size() - 1, getHalfMoveCounter());
-        if (getHistory().size() >= 4) {
-            long lastKey = getHistory().get(getHistory().size() - 1);
+        // positions before the last capture or pawn move can not be repeated
+        final int last = historySize - 1;
+        final int i = Math.min(last, getHalfMoveCounter());
+        if (historySize >= 4) {
+            final long lastKey = history[last];
             int rep = 0;
             for (int x = 4; x <= i; x += 2) {
-                final long k = getHistory().get(getHistory().size() - x - 1);
-                if (k == lastKey && ++rep >= n - 1) {
+                if (history[last - x] == lastKey && ++rep >= n - 1) {
                     return true;
                 }
             }
@@ -1427,51 +1895,45 @@ public class Board implements Cloneable, BoardEvent {
      */
     public boolean isInsufficientMaterial() {
 
-        if ((getBitboard(Piece.WHITE_QUEEN) +
-                getBitboard(Piece.BLACK_QUEEN) +
-                getBitboard(Piece.WHITE_ROOK) +
-                getBitboard(Piece.BLACK_ROOK)) != 0L) {
+        final int[] count = pieceCount;
+        if (count[Piece.WHITE_QUEEN.ordinal()] + count[Piece.BLACK_QUEEN.ordinal()] +
+                count[Piece.WHITE_ROOK.ordinal()] + count[Piece.BLACK_ROOK.ordinal()] +
+                count[Piece.WHITE_PAWN.ordinal()] + count[Piece.BLACK_PAWN.ordinal()] != 0) {
             return false;
         }
 
-        final long pawns = getBitboard(Piece.WHITE_PAWN) | getBitboard(Piece.BLACK_PAWN);
-        if (pawns == 0L) {
-            long count = Long.bitCount(getBitboard());
-            int whiteCount = Long.bitCount(getBitboard(Side.WHITE));
-            int blackCount = Long.bitCount(getBitboard(Side.BLACK));
-            if (count == 4) {
-                int whiteBishopCount = Long.bitCount(getBitboard(Piece.WHITE_BISHOP));
-                int blackBishopCount = Long.bitCount(getBitboard(Piece.BLACK_BISHOP));
-                if (whiteCount > 1 && blackCount > 1) {
-                    return !((whiteBishopCount == 1 && blackBishopCount == 1) &&
-                            getFistPieceLocation(Piece.WHITE_BISHOP).isLightSquare() !=
-                                    getFistPieceLocation(Piece.BLACK_BISHOP).isLightSquare());
-                }
-                if (whiteCount == 3 || blackCount == 3) {
-                    if (whiteBishopCount == 2 &&
-                            ((Bitboard.lightSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L ||
-                                    (Bitboard.darkSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L)) {
-                        return true;
-                    } else return blackBishopCount == 2 &&
-                            ((Bitboard.lightSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L ||
-                                    (Bitboard.darkSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L);
-                } else {
-                    return Long.bitCount(getBitboard(Piece.WHITE_KNIGHT)) == 2 ||
-                            Long.bitCount(getBitboard(Piece.BLACK_KNIGHT)) == 2;
-                }
+        final int whiteKnightCount = count[Piece.WHITE_KNIGHT.ordinal()];
+        final int blackKnightCount = count[Piece.BLACK_KNIGHT.ordinal()];
+        final int whiteBishopCount = count[Piece.WHITE_BISHOP.ordinal()];
+        final int blackBishopCount = count[Piece.BLACK_BISHOP.ordinal()];
+        final int whiteCount = count[Piece.WHITE_KING.ordinal()] + whiteKnightCount + whiteBishopCount;
+        final int blackCount = count[Piece.BLACK_KING.ordinal()] + blackKnightCount + blackBishopCount;
+        if (whiteCount + blackCount == 4) {
+            if (whiteCount > 1 && blackCount > 1) {
+                return !((whiteBishopCount == 1 && blackBishopCount == 1) &&
+                        getFistPieceLocation(Piece.WHITE_BISHOP).isLightSquare() !=
+                                getFistPieceLocation(Piece.BLACK_BISHOP).isLightSquare());
+            }
+            if (whiteCount == 3 || blackCount == 3) {
+                if (whiteBishopCount == 2 &&
+                        ((Bitboard.lightSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L ||
+                                (Bitboard.darkSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L)) {
+                    return true;
+                } else return blackBishopCount == 2 &&
+                        ((Bitboard.lightSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L ||
+                                (Bitboard.darkSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L);
             } else {
-                if ((getBitboard(Piece.WHITE_KING) | getBitboard(Piece.WHITE_BISHOP)) == getBitboard(Side.WHITE) &&
-                        ((getBitboard(Piece.BLACK_KING) | getBitboard(Piece.BLACK_BISHOP)) == getBitboard(Side.BLACK))) {
-                    return (((Bitboard.lightSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L) &&
-                            ((Bitboard.lightSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L)) ||
-                            ((Bitboard.darkSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L) &&
-                                    ((Bitboard.darkSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L);
-                }
-                return count < 4;
+                return whiteKnightCount == 2 || blackKnightCount == 2;
+            }
+        } else {
+            if (whiteKnightCount == 0 && blackKnightCount == 0) {
+                return (((Bitboard.lightSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L) &&
+                        ((Bitboard.lightSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L)) ||
+                        ((Bitboard.darkSquares & getBitboard(Piece.WHITE_BISHOP)) == 0L) &&
+                                ((Bitboard.darkSquares & getBitboard(Piece.BLACK_BISHOP)) == 0L);
             }
+            return whiteCount + blackCount < 4;
         }
-
-        return false;
     }
 
     /**
@@ -1481,17 +1943,7 @@ public class Board implements Cloneable, BoardEvent {
      * @return {@code true} if the king of the side to move is stalemated
      */
     public boolean isStaleMate() {
-        try {
-            if (!isKingAttacked()) {
-                List<Move> l = MoveGenerator.generateLegalMoves(this);
-                if (l.size() == 0) {
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        return false;
+        return getStatus() == BoardStatus.STALEMATE;
     }
 
     /**
@@ -1619,7 +2071,8 @@ public class Board implements Cloneable, BoardEvent {
     public boolean strictEquals(Object obj) {
         if (obj instanceof Board) {
             Board board = (Board) obj;
-            return equals(board) && board.getHistory().equals(this.getHistory());
+            return equals(board) &&
+                    Arrays.equals(board.history, 0, board.historySize, this.history, 0, this.historySize);
         }
         return false;
     }
@@ -1666,19 +2119,20 @@ public class Board implements Cloneable, BoardEvent {
     }
 
     private long getCastleRightKey(Side side) {
-        return keys.get(3 * getCastleRight(side).ordinal() + 300 + 3 * side.ordinal());
+        return keys[CASTLE_RIGHT_KEYS + CastleRight.values().length * side.ordinal() +
+                getCastleRight(side).ordinal()];
     }
 
     private long getSideKey(Side side) {
-        return keys.get(3 * side.ordinal() + 500);
+        return keys[SIDE_KEYS + side.ordinal()];
     }
 
     private long getEnPassantKey(Square enPassantTarget) {
-        return keys.get(3 * enPassantTarget.ordinal() + 400);
+        return keys[EN_PASSANT_KEYS + enPassantTarget.ordinal()];
     }
 
     private long getPieceSquareKey(Piece piece, Square square) {
-        return keys.get(57 * piece.ordinal() + 13 * square.ordinal());
+        return keys[64 * piece.ordinal() + square.ordinal()];
     }
 
     /**
@@ -1752,22 +2206,69 @@ public class Board implements Cloneable, BoardEvent {
     }
 
     /**
-     * Returns a reference to a copy of the board. The board history is copied as well.
+     * Returns a reference to a copy of the board. The board history and the flag enabling the events are copied as
+     * well, while the moves that can be reverted, the event listeners and the incremental evaluator are not.
      *
      * @return a copy of the board
+     * @see Board#copyTo(Board)
      */
     @Override
     public Board clone() {
-        Board copy = new Board(getContext(), this.updateHistory);
-        copy.loadFromFen(this.getFen());
-        copy.setEnPassantTarget(this.getEnPassantTarget());
-        copy.getHistory().clear();
-        for (long key : getHistory()) {
-            copy.getHistory().add(key);
-        }
+        Board copy = new Board(getContext(), this.updateHistory, isEnableEvents(), false);
+        copyTo(copy);
         return copy;
     }
 
+    /**
+     * Copies the position and the status of this board into another board, overwriting them. The game context and the
+     * history of the board are copied as well, so that the target board becomes equivalent to this board in the strict
+     * mode (see {@link Board#strictEquals(Object)}). The moves that can be reverted on the target board are discarded,
+     * while its event listeners are kept and notified with an {@link BoardEventType#ON_LOAD} event. Its incremental
+     * evaluator, if any, is kept as well and reset to the copied position.
+     * <p>
+     * Contrary to {@link Board#clone()}, the method does not allocate a new board, and it can be used to reuse the same
+     * instance for copying different positions, e.g. in worker threads.
+     *
+     * @param board the board to overwrite with the copy of this board
+     */
+    public void copyTo(Board board) {
+        System.arraycopy(bitboard, 0, board.bitboard, 0, bitboard.length);
+        System.arraycopy(bbSide, 0, board.bbSide, 0, bbSide.length);
+        System.arraycopy(occupation, 0, board.occupation, 0, occupation.length);
+        System.arraycopy(pieceCount, 0, board.pieceCount, 0, pieceCount.length);
+        board.materialKey = materialKey;
+        board.gamePhase = gamePhase;
+        board.castleRight.put(Side.WHITE, getCastleRight(Side.WHITE));
+        board.castleRight.put(Side.BLACK, getCastleRight(Side.BLACK));
+        board.sideToMove = sideToMove;
+        board.enPassantTarget = enPassantTarget;
+        board.enPassant = enPassant;
+        board.moveCounter = moveCounter;
+        board.halfMoveCounter = halfMoveCounter;
+        board.context = context;
+        board.incrementalHashKey = incrementalHashKey;
+        if (board.history.length < historySize) {
+            board.history = Arrays.copyOf(history, history.length);
+        } else {
+            System.arraycopy(history, 0, board.history, 0, historySize);
+        }
+        board.historySize = historySize;
+        board.backupSize = 0;
+        board.status = null;
+        if (board.evaluator != null) {
+            board.evaluator.reset(board);
+        }
+
+        // call listeners
+        if (board.isEnableEvents() &&
+                board.eventListener.get(BoardEventType.ON_LOAD).size() > 0) {
+            for (BoardEventListener evl :
+                    board.eventListener.get(BoardEventType.ON_LOAD)) {
+                evl.onEvent(board);
+            }
+        }
+    }
+
     /**
      * Returns the current incremental hash key. This hash value changes every time the position changes, hence it is
      * unique for every position.
@@ -1787,7 +2288,7 @@ public class Board implements Cloneable, BoardEvent {
         incrementalHashKey = hashKey;
     }
 
-    private boolean pawnCanBeCapturedEnPassant() {
+    boolean pawnCanBeCapturedEnPassant() {
         return
                 squareAttackedByPieceType(getEnPassant(), getSideToMove(), PieceType.PAWN) != 0
                         && verifyNotPinnedPiece(getSideToMove().flip(), getEnPassant(), getEnPassantTarget());
@@ -1818,4 +2319,42 @@ public class Board implements Cloneable, BoardEvent {
 
         return (getBitboard() ^ pieces ^ target.getBitboard()) | enPassant.getBitboard();
     }
+
+    /*
+     * read-only view of the undo stack, exposed through the List interface
+     */
+    private class BackupView extends AbstractList<MoveBackup> implements RandomAccess {
+
+        @Override
+        public MoveBackup get(int index) {
+            if (index < 0 || index >= backupSize) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + backupSize);
+            }
+            return backup[index];
+        }
+
+        @Override
+        public int size() {
+            return backupSize;
+        }
+    }
+
+    /*
+     * read-only view of the history stack, exposed through the List interface
+     */
+    private class HistoryView extends AbstractList<Long> implements RandomAccess {
+
+        @Override
+        public Long get(int index) {
+            if (index < 0 || index >= historySize) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + historySize);
+            }
+            return history[index];
+        }
+
+        @Override
+        public int size() {
+            return historySize;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib;
+
+/**
+ * All possible statuses of a position on a {@link Board}, according to the standard rules of chess. A position can
+ * be still in play, or the game can be over because of a checkmate or of any of the forced draw rules.
+ *
+ * @see Board#getStatus()
+ */
+public enum BoardStatus {
+    /**
+     * The status of a position in which the game can continue.
+     */
+    ONGOING,
+    /**
+     * The status of a position in which the king of the side to move is checkmated.
+     */
+    CHECKMATE,
+    /**
+     * The status of a position in which the king of the side to move is stalemated.
+     */
+    STALEMATE,
+    /**
+     * The status of a position repeated at least three times (threefold repetition).
+     */
+    REPETITION,
+    /**
+     * The status of a position in which there is not enough material to deliver a checkmate.
+     */
+    INSUFFICIENT_MATERIAL,
+    /**
+     * The status of a position reached after fifty moves by each side without any capture or pawn move (fifty-move
+     * rule).
+     */
+    FIFTY_MOVE_RULE;
+
+    /**
+     * Returns a board status given its name.
+     * <p>
+     * Same as invoking {@link BoardStatus#valueOf(String)}.
+     *
+     * @param v name of the board status
+     * @return the board status with the specified name
+     * @throws IllegalArgumentException if the name does not correspond to any board status
+     */
+    public static BoardStatus fromValue(String v) {
+        return valueOf(v);
+    }
+
+    /**
+     * Returns the name of the board status.
+     *
+     * @return the name of the board status
+     */
+    public String value() {
+        return name();
+    }
+
+    /**
+     * Checks whether the status terminates the game, that is, whether it is not {@link BoardStatus#ONGOING}.
+     *
+     * @return {@code true} if the game is over
+     */
+    public boolean isGameOver() {
+        return this != ONGOING;
+    }
+
+    /**
+     * Checks whether the status is a forced draw, that is, any status other than {@link BoardStatus#ONGOING} and
+     * {@link BoardStatus#CHECKMATE}.
+     *
+     * @return {@code true} if the status is a draw
+     */
+    public boolean isDraw() {
+        return this != ONGOING && this != CHECKMATE;
+    }
+}
@@ -38,6 +38,8 @@ public enum CastleRight {
      */
     NONE;
 
+    public static final CastleRight[] allCastleRights = values();
+
     /**
      * Returns a castle right given its name.
      * <p>
@@ -36,35 +36,35 @@ public class Constants {
     /**
      * The shift of the white king in a default short castle move.
      */
-    public static final Move DEFAULT_WHITE_OO = new Move(Square.E1, Square.G1);
+    public static final Move DEFAULT_WHITE_OO = Move.valueOf(Square.E1, Square.G1);
     /**
      * The shift of the white king in a default long castle move.
      */
-    public static final Move DEFAULT_WHITE_OOO = new Move(Square.E1, Square.C1);
+    public static final Move DEFAULT_WHITE_OOO = Move.valueOf(Square.E1, Square.C1);
     /**
      * The shift of the black king in a default short castle move.
      */
-    public static final Move DEFAULT_BLACK_OO = new Move(Square.E8, Square.G8);
+    public static final Move DEFAULT_BLACK_OO = Move.valueOf(Square.E8, Square.G8);
     /**
      * The shift of the black king in a default long castle move.
      */
-    public static final Move DEFAULT_BLACK_OOO = new Move(Square.E8, Square.C8);
+    public static final Move DEFAULT_BLACK_OOO = Move.valueOf(Square.E8, Square.C8);
     /**
      * The shift of the white rook in a default short castle move.
      */
-    public static final Move DEFAULT_WHITE_ROOK_OO = new Move(Square.H1, Square.F1);
+    public static final Move DEFAULT_WHITE_ROOK_OO = Move.valueOf(Square.H1, Square.F1);
     /**
      * The shift of the white rook in a default long castle move.
      */
-    public static final Move DEFAULT_WHITE_ROOK_OOO = new Move(Square.A1, Square.D1);
+    public static final Move DEFAULT_WHITE_ROOK_OOO = Move.valueOf(Square.A1, Square.D1);
     /**
      * The shift of the black rook in a default short castle move.
      */
-    public static final Move DEFAULT_BLACK_ROOK_OO = new Move(Square.H8, Square.F8);
+    public static final Move DEFAULT_BLACK_ROOK_OO = Move.valueOf(Square.H8, Square.F8);
     /**
      * The shift of the black rook in a default long castle move.
      */
-    public static final Move DEFAULT_BLACK_ROOK_OOO = new Move(Square.A8, Square.D8);
+    public static final Move DEFAULT_BLACK_ROOK_OOO = Move.valueOf(Square.A8, Square.D8);
     /**
      * The list of squares crossed by the white king in the case of short castle.
      */
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib;
+
+/**
+ * The reader and writer of Forsyth-Edwards Notation (FEN) strings used by {@link Board}. Both directions scan the
+ * characters in a single pass, using lookup tables for pieces and castle rights, and they do not allocate any
+ * intermediate object.
+ * <p>
+ * The reader is strict: any malformed field is reported with a {@link FenException} carrying the index of the
+ * offending character. Only the piece placement and the side to move are mandatory, the remaining fields default to no
+ * castle rights, no en passant square and zeroed counters. The move counters are parsed only when numeric, so that the
+ * operations following the first four fields of an Extended Position Description (EPD) line are ignored.
+ */
+final class FenCodec {
+
+    private static final char[] pieceChars = new char[Piece.allPieces.length];
+    private static final CastleRight[] castleRights = {
+            CastleRight.NONE, CastleRight.KING_SIDE, CastleRight.QUEEN_SIDE, CastleRight.KING_AND_QUEEN_SIDE
+    };
+    private static final int KING_SIDE = 1;
+    private static final int QUEEN_SIDE = 2;
+    private static final int MAX_COUNTER = (Integer.MAX_VALUE - 9) / 10;
+
+    static {
+        for (Piece piece : Piece.allPieces) {
+            if (piece != Piece.NONE) {
+                pieceChars[piece.ordinal()] = piece.getFenSymbol().charAt(0);
+            }
+        }
+    }
+
+    private FenCodec() {
+    }
+
+    /**
+     * Reads the position described by a FEN string into a board. The board is expected to be cleared beforehand. The
+     * en passant square is set as it is, without checking whether the pawn can be actually captured.
+     *
+     * @param fen   the FEN string
+     * @param board the board to fill
+     * @return the index following the last field read
+     * @throws FenException if the FEN string is malformed
+     */
+    static int read(CharSequence fen, Board board) {
+        final int length = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        int rank = 7;
+        int file = 0;
+        while (i < length && !isSpace(fen.charAt(i))) {
+            char c = fen.charAt(i);
+            if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw error(fen, i, "too many squares in rank " + (rank + 1));
+                }
+            } else if (c == '/') {
+                if (file != 8) {
+                    throw error(fen, i, "too few squares in rank " + (rank + 1));
+                }
+                if (rank == 0) {
+                    throw error(fen, i, "too many ranks");
+                }
+                rank--;
+                file = 0;
+            } else {
+                Piece piece = Piece.fromFenSymbol(c);
+                if (piece == Piece.NONE) {
+                    throw error(fen, i, "unknown piece '" + c + "'");
+                }
+                if (file == 8) {
+                    throw error(fen, i, "too many squares in rank " + (rank + 1));
+                }
+                board.setPiece(piece, Square.squareAt(rank * 8 + file));
+                file++;
+            }
+            i++;
+        }
+        if (rank != 0 || file != 8) {
+            throw error(fen, i, "incomplete piece placement");
+        }
+
+        i = skipSpaces(fen, i);
+        if (i == length) {
+            throw error(fen, i, "missing side to move");
+        }
+        char c = fen.charAt(i);
+        if (c != 'w' && c != 'b') {
+            throw error(fen, i, "invalid side to move '" + c + "'");
+        }
+        Side side = c == 'w' ? Side.WHITE : Side.BLACK;
+        board.setSideToMove(side);
+        i = endOfField(fen, i + 1);
+
+        int rights = 0;
+        if (i < length) {
+            if (fen.charAt(i) == '-') {
+                i++;
+            } else {
+                while (i < length && !isSpace(fen.charAt(i))) {
+                    int right = castleRight(fen.charAt(i));
+                    if (right == 0) {
+                        throw error(fen, i, "invalid castle right '" + fen.charAt(i) + "'");
+                    }
+                    if ((rights & right) != 0) {
+                        throw error(fen, i, "duplicate castle right '" + fen.charAt(i) + "'");
+                    }
+                    rights |= right;
+                    i++;
+                }
+            }
+            i = endOfField(fen, i);
+        }
+        board.getCastleRight().put(Side.WHITE, castleRights[rights & 3]);
+        board.getCastleRight().put(Side.BLACK, castleRights[rights >>> 2]);
+
+        if (i < length) {
+            if (fen.charAt(i) == '-') {
+                i++;
+            } else {
+                char epFile = fen.charAt(i);
+                char epRank = i + 1 < length ? fen.charAt(i + 1) : ' ';
+                if (epFile < 'a' || epFile > 'h') {
+                    throw error(fen, i, "invalid en passant square");
+                }
+                if (epRank != (side == Side.WHITE ? '6' : '3')) {
+                    throw error(fen, i + 1, "invalid en passant square");
+                }
+                board.setEnPassant(Square.squareAt((epRank - '1') * 8 + epFile - 'a'));
+                i += 2;
+            }
+            i = endOfField(fen, i);
+        }
+
+        if (i < length && isDigit(fen.charAt(i))) {
+            int start = i;
+            i = endOfNumber(fen, i);
+            board.setHalfMoveCounter(parseCounter(fen, start, i));
+            i = endOfField(fen, i);
+            if (i < length && isDigit(fen.charAt(i))) {
+                start = i;
+                i = endOfNumber(fen, i);
+                board.setMoveCounter(parseCounter(fen, start, i));
+                i = endOfField(fen, i);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Writes the FEN representation of the position of a board into a character buffer. The buffer must have room
+     * for at least {@link Board#MAX_FEN_LENGTH} characters after the offset.
+     *
+     * @param board                           the board to write
+     * @param buffer                          the buffer to write into
+     * @param offset                          the index of the buffer from which to start writing
+     * @param includeCounters                 if {@code true}, move counters are included in the output
+     * @param onlyOutputEnPassantIfCapturable if {@code true}, the en passant square is included in the output only if
+     *                                        the pawn that just moved can be captured
+     * @return the index of the buffer following the last character written
+     */
+    static int write(Board board, char[] buffer, int offset, boolean includeCounters,
+                     boolean onlyOutputEnPassantIfCapturable) {
+        int i = offset;
+        for (int rank = 7; rank >= 0; rank--) {
+            int emptySquares = 0;
+            for (int file = 0; file < 8; file++) {
+                Piece piece = board.getPiece(Square.squareAt(rank * 8 + file));
+                if (piece == Piece.NONE) {
+                    emptySquares++;
+                } else {
+                    if (emptySquares > 0) {
+                        buffer[i++] = (char) ('0' + emptySquares);
+                        emptySquares = 0;
+                    }
+                    buffer[i++] = pieceChars[piece.ordinal()];
+                }
+            }
+            if (emptySquares > 0) {
+                buffer[i++] = (char) ('0' + emptySquares);
+            }
+            if (rank > 0) {
+                buffer[i++] = '/';
+            }
+        }
+
+        buffer[i++] = ' ';
+        buffer[i++] = board.getSideToMove() == Side.WHITE ? 'w' : 'b';
+
+        buffer[i++] = ' ';
+        int start = i;
+        CastleRight white = board.getCastleRight(Side.WHITE);
+        CastleRight black = board.getCastleRight(Side.BLACK);
+        if (white == CastleRight.KING_SIDE || white == CastleRight.KING_AND_QUEEN_SIDE) {
+            buffer[i++] = 'K';
+        }
+        if (white == CastleRight.QUEEN_SIDE || white == CastleRight.KING_AND_QUEEN_SIDE) {
+            buffer[i++] = 'Q';
+        }
+        if (black == CastleRight.KING_SIDE || black == CastleRight.KING_AND_QUEEN_SIDE) {
+            buffer[i++] = 'k';
+        }
+        if (black == CastleRight.QUEEN_SIDE || black == CastleRight.KING_AND_QUEEN_SIDE) {
+            buffer[i++] = 'q';
+        }
+        if (i == start) {
+            buffer[i++] = '-';
+        }
+
+        buffer[i++] = ' ';
+        Square enPassant = board.getEnPassant();
+        if (enPassant == Square.NONE ||
+                (onlyOutputEnPassantIfCapturable && !board.pawnCanBeCapturedEnPassant())) {
+            buffer[i++] = '-';
+        } else {
+            buffer[i++] = (char) ('a' + (enPassant.ordinal() & 7));
+            buffer[i++] = (char) ('1' + (enPassant.ordinal() >>> 3));
+        }
+
+        if (includeCounters) {
+            buffer[i++] = ' ';
+            i = writeCounter(buffer, i, board.getHalfMoveCounter());
+            buffer[i++] = ' ';
+            i = writeCounter(buffer, i, board.getMoveCounter());
+        }
+        return i;
+    }
+
+    private static int castleRight(char c) {
+        switch (c) {
+            case 'K':
+                return KING_SIDE;
+            case 'Q':
+                return QUEEN_SIDE;
+            case 'k':
+                return KING_SIDE << 2;
+            case 'q':
+                return QUEEN_SIDE << 2;
+            default:
+                return 0;
+        }
+    }
+
+    private static int parseCounter(CharSequence fen, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (value > MAX_COUNTER) {
+                throw error(fen, i, "move counter too large");
+            }
+            value = value * 10 + fen.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    private static int writeCounter(char[] buffer, int offset, int value) {
+        if (value < 0) {
+            buffer[offset++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int endOfNumber(CharSequence fen, int i) {
+        while (i < fen.length() && isDigit(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /*
+     * a field must be followed by white spaces or by the end of the string, the index of the next field is returned
+     */
+    private static int endOfField(CharSequence fen, int i) {
+        if (i < fen.length() && !isSpace(fen.charAt(i))) {
+            throw error(fen, i, "unexpected character '" + fen.charAt(i) + "'");
+        }
+        return skipSpaces(fen, i);
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && isSpace(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static FenException error(CharSequence fen, int index, String reason) {
+        return new FenException(String.format("Invalid FEN '%s' at index %d: %s", fen, index, reason), index);
+    }
+}
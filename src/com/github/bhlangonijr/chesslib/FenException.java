@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib;
+
+/**
+ * Thrown to indicate a failure parsing a Forsyth-Edwards Notation (FEN) string, because it is malformed or it describes
+ * an invalid position. The exception reports the index of the offending character in the input.
+ */
+public class FenException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = -1836428475934712536L;
+
+    private final int index;
+
+    /**
+     * Constructs a new FEN exception with the specified detail message and the index of the offending character.
+     *
+     * @param message the error message
+     * @param index   the index of the offending character in the FEN string
+     */
+    public FenException(String message, int index) {
+        super(message);
+        this.index = index;
+    }
+
+    /**
+     * Returns the index of the offending character in the FEN string.
+     *
+     * @return the index of the offending character
+     */
+    public int getIndex() {
+        return index;
+    }
+}
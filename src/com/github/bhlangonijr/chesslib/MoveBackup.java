@@ -29,15 +29,23 @@ import com.github.bhlangonijr.chesslib.move.Move;
  * <p>
  * The move backup is also a {@link BoardEvent}, and hence it can be passed to the observers of the
  * {@link BoardEventType#ON_UNDO_MOVE} events, emitted when a move is reverted on a board.
+ * <p>
+ * The backup holds only primitive values and references to immutable objects, so that a board can keep a pool of
+ * backups and overwrite them using {@link MoveBackup#makeBackup(Board, Move)}, instead of allocating a new one for
+ * every move. As a consequence, the backups obtained from a board, including the ones passed to the event observers,
+ * are valid only until the board executes another move.
  */
 public class MoveBackup implements BoardEvent {
 
-    private final EnumMap<Side, CastleRight> castleRight;
+    private static final int CASTLE_RIGHT_BITS = 2;
+    private static final int CASTLE_RIGHT_MASK = (1 << CASTLE_RIGHT_BITS) - 1;
+
+    private int castleRights;
     private Side sideToMove;
     private Square enPassantTarget;
     private Square enPassant;
-    private Integer moveCounter;
-    private Integer halfMoveCounter;
+    private int moveCounter;
+    private int halfMoveCounter;
     private Move move;
     private Move rookCastleMove;
     private Piece capturedPiece;
@@ -51,7 +59,8 @@ public class MoveBackup implements BoardEvent {
      * Constructs a new empty move backup.
      */
     public MoveBackup() {
-        castleRight = new EnumMap<>(Side.class);
+        setCastleRight(Side.WHITE, CastleRight.NONE);
+        setCastleRight(Side.BLACK, CastleRight.NONE);
     }
 
     /**
@@ -81,13 +90,13 @@ public class MoveBackup implements BoardEvent {
         setMoveCounter(board.getMoveCounter());
         setHalfMoveCounter(board.getHalfMoveCounter());
         setMove(move);
-        getCastleRight().put(Side.WHITE, board.getCastleRight(Side.WHITE));
-        getCastleRight().put(Side.BLACK, board.getCastleRight(Side.BLACK));
+        setCastleRight(Side.WHITE, board.getCastleRight(Side.WHITE));
+        setCastleRight(Side.BLACK, board.getCastleRight(Side.BLACK));
         setCapturedPiece(board.getPiece(move.getTo()));
         setCapturedSquare(move.getTo());
         Piece moving = board.getPiece(move.getFrom());
         setMovingPiece(moving);
-        if (board.getContext().isCastleMove(move) && movingPiece == Piece.make(board.getSideToMove(), PieceType.KING)) {
+        if (moving == Piece.make(board.getSideToMove(), PieceType.KING) && board.getContext().isCastleMove(move)) {
             CastleRight c = board.getContext().isKingSideCastle(move) ? CastleRight.KING_SIDE :
                     CastleRight.QUEEN_SIDE;
             Move rookMove = board.getContext().getRookCastleMove(board.getSideToMove(), c);
@@ -116,13 +125,11 @@ public class MoveBackup implements BoardEvent {
         board.setMoveCounter(getMoveCounter());
         board.setHalfMoveCounter(getHalfMoveCounter());
         Piece movingPiece = move.getPromotion() == Piece.NONE ? getMovingPiece() : move.getPromotion();
-        board.getCastleRight().put(Side.WHITE, getCastleRight().get(Side.WHITE));
-        board.getCastleRight().put(Side.BLACK, getCastleRight().get(Side.BLACK));
+        board.getCastleRight().put(Side.WHITE, getCastleRight(Side.WHITE));
+        board.getCastleRight().put(Side.BLACK, getCastleRight(Side.BLACK));
 
         if (move != emptyMove) {
-            final boolean isCastle = board.getContext().isCastleMove(getMove());
-
-            if (PieceType.KING.equals(movingPiece.getPieceType()) && isCastle) {
+            if (isCastleMove()) {
                 board.undoMovePiece(getRookCastleMove());
             }
             board.unsetPiece(movingPiece, getMove().getTo());
@@ -199,7 +206,7 @@ public class MoveBackup implements BoardEvent {
      *
      * @return the counter of full moves
      */
-    public Integer getMoveCounter() {
+    public int getMoveCounter() {
         return moveCounter;
     }
 
@@ -208,7 +215,7 @@ public class MoveBackup implements BoardEvent {
      *
      * @param moveCounter the counter of full moves
      */
-    public void setMoveCounter(Integer moveCounter) {
+    public void setMoveCounter(int moveCounter) {
         this.moveCounter = moveCounter;
     }
 
@@ -217,7 +224,7 @@ public class MoveBackup implements BoardEvent {
      *
      * @return the counter of half moves
      */
-    public Integer getHalfMoveCounter() {
+    public int getHalfMoveCounter() {
         return halfMoveCounter;
     }
 
@@ -226,7 +233,7 @@ public class MoveBackup implements BoardEvent {
      *
      * @param halfMoveCounter the counter of half moves
      */
-    public void setHalfMoveCounter(Integer halfMoveCounter) {
+    public void setHalfMoveCounter(int halfMoveCounter) {
         this.halfMoveCounter = halfMoveCounter;
     }
 
@@ -267,14 +274,41 @@ public class MoveBackup implements BoardEvent {
     }
 
     /**
-     * Returns the castle rights used for restoring the board.
+     * Returns the castle right of the given side used for restoring the board.
+     *
+     * @param side the side of the castle right
+     * @return the castle right of the side
+     */
+    public CastleRight getCastleRight(Side side) {
+        return CastleRight.allCastleRights[(castleRights >>> (CASTLE_RIGHT_BITS * side.ordinal())) & CASTLE_RIGHT_MASK];
+    }
+
+    /**
+     * Returns the castle rights used for restoring the board. The returned map is a snapshot of the castle rights of
+     * both sides, hence its modifications are not reflected on the backup.
      *
      * @return the castle rights
+     * @deprecated the method allocates a new map, use {@link MoveBackup#getCastleRight(Side)} instead
      */
+    @Deprecated
     public EnumMap<Side, CastleRight> getCastleRight() {
+        EnumMap<Side, CastleRight> castleRight = new EnumMap<>(Side.class);
+        castleRight.put(Side.WHITE, getCastleRight(Side.WHITE));
+        castleRight.put(Side.BLACK, getCastleRight(Side.BLACK));
         return castleRight;
     }
 
+    /**
+     * Sets the castle right of the given side used for restoring the board.
+     *
+     * @param side        the side of the castle right
+     * @param castleRight the castle right of the side
+     */
+    public void setCastleRight(Side side, CastleRight castleRight) {
+        int shift = CASTLE_RIGHT_BITS * side.ordinal();
+        castleRights = (castleRights & ~(CASTLE_RIGHT_MASK << shift)) | (castleRight.ordinal() << shift);
+    }
+
     /**
      * Returns the piece captured with the move to revert in the case a board has to be restored.
      *
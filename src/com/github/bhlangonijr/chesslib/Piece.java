@@ -16,6 +16,7 @@
 
 package com.github.bhlangonijr.chesslib;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -82,6 +83,7 @@ public enum Piece {
 
     public static final Piece[] allPieces = values();
     private static final Map<String, Piece> fenToPiece = new HashMap<>(13);
+    private static final Piece[] fenCharToPiece = new Piece[128];
     private static final Piece[][] pieceMake = {
             {WHITE_PAWN, BLACK_PAWN},
             {WHITE_KNIGHT, BLACK_KNIGHT},
@@ -96,6 +98,12 @@ public enum Piece {
         for (final Piece piece : Piece.values()) {
             fenToPiece.put(piece.getFenSymbol(), piece);
         }
+        Arrays.fill(fenCharToPiece, NONE);
+        for (final Piece piece : Piece.values()) {
+            if (piece != NONE) {
+                fenCharToPiece[piece.getFenSymbol().charAt(0)] = piece;
+            }
+        }
     }
 
     private final Side side;
@@ -150,6 +158,17 @@ public enum Piece {
         return piece;
     }
 
+    /**
+     * Returns a piece given its Forsyth-Edwards Notation (FEN) symbol, represented as a single character. Contrary to
+     * {@link Piece#fromFenSymbol(String)}, the lookup does not throw any exception.
+     *
+     * @param fenSymbol the FEN symbol of the piece
+     * @return the piece with the specified FEN symbol, or {@link Piece#NONE} if the symbol is unknown
+     */
+    public static Piece fromFenSymbol(char fenSymbol) {
+        return fenSymbol < fenCharToPiece.length ? fenCharToPiece[fenSymbol] : NONE;
+    }
+
     /**
      * Returns the name of the piece.
      *
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.github.bhlangonijr.chesslib.Bitboard.extractLsb;
+
+/**
+ * The reader and writer of the compact binary encoding of a position used by {@link Board}. A position always takes
+ * {@link Board#ENCODED_POSITION_LENGTH} bytes, laid out as follows, with multi-byte values in big-endian order
+ * regardless of the byte order of the buffer:
+ * <ul>
+ *     <li>bytes 0-7: the occupancy bitboard, where bit {@code i} is set if the square with ordinal {@code i} is
+ *     occupied;</li>
+ *     <li>bytes 8-23: the pieces on the occupied squares, in ascending square order, each one encoded with the 4-bit
+ *     ordinal of the {@link Piece}, high nibble first. Unused nibbles are zero;</li>
+ *     <li>byte 24: the side to move in bit 0 (set for black), and the castle rights {@code KQkq} in bits 1-4;</li>
+ *     <li>byte 25: the file of the en passant square plus one, or zero if there is no en passant square. The rank is
+ *     implied by the side to move;</li>
+ *     <li>bytes 26-27: the half-move counter, as an unsigned short;</li>
+ *     <li>bytes 28-31: the full-move counter.</li>
+ * </ul>
+ * The encoding is canonical: boards that are equal (see {@link Board#equals(Object)}) and have the same move counters
+ * are encoded to the same bytes.
+ */
+final class PositionCodec {
+
+    private static final int PIECES_OFFSET = 8;
+    private static final int STATUS_OFFSET = 24;
+    private static final int HALF_MOVE_COUNTER_OFFSET = 26;
+    private static final int MOVE_COUNTER_OFFSET = 28;
+    private static final int MAX_PIECES = 32;
+    private static final int BLACK_TO_MOVE = 1;
+    // castle rights indexed by their 2-bit encoding (king side in bit 0, queen side in bit 1) and vice versa
+    private static final CastleRight[] castleRights = {
+            CastleRight.NONE, CastleRight.KING_SIDE, CastleRight.QUEEN_SIDE, CastleRight.KING_AND_QUEEN_SIDE
+    };
+    private static final int[] castleRightBits = new int[CastleRight.allCastleRights.length];
+
+    static {
+        for (int bits = 0; bits < castleRights.length; bits++) {
+            castleRightBits[castleRights[bits].ordinal()] = bits;
+        }
+    }
+
+    private PositionCodec() {
+    }
+
+    /**
+     * Reads an encoded position into a board, advancing the position of the buffer. The encoding is fully validated
+     * before the board is cleared and filled, so that neither the board nor the position of the buffer are modified if
+     * the encoding is invalid. The en passant square is set as it is, without checking whether the pawn can be
+     * actually captured.
+     *
+     * @param buffer the buffer to read from
+     * @param board  the board to clear and fill
+     * @throws BufferUnderflowException if fewer than {@link Board#ENCODED_POSITION_LENGTH} bytes remain in the buffer
+     * @throws IllegalArgumentException if the encoding is invalid
+     */
+    static void read(ByteBuffer buffer, Board board) {
+        if (buffer.remaining() < Board.ENCODED_POSITION_LENGTH) {
+            throw new BufferUnderflowException();
+        }
+        final int start = buffer.position();
+        long occupancy = getLong(buffer, start);
+        long high = getLong(buffer, start + PIECES_OFFSET);
+        long low = getLong(buffer, start + PIECES_OFFSET + 8);
+        int status = buffer.get(start + STATUS_OFFSET) & 0xFF;
+        int enPassantFile = buffer.get(start + STATUS_OFFSET + 1) & 0xFF;
+        int halfMoveCounter = getShort(buffer, start + HALF_MOVE_COUNTER_OFFSET) & 0xFFFF;
+        int moveCounter = getInt(buffer, start + MOVE_COUNTER_OFFSET);
+
+        int pieceCount = Long.bitCount(occupancy);
+        if (pieceCount > MAX_PIECES) {
+            throw new IllegalArgumentException("Invalid encoded position: too many pieces");
+        }
+        if (status >>> 5 != 0 || enPassantFile > 8 || moveCounter < 0) {
+            throw new IllegalArgumentException("Invalid encoded position: invalid status");
+        }
+        long unused = pieceCount <= 16 ? low | mask(high, pieceCount) : mask(low, pieceCount - 16);
+        if (unused != 0L) {
+            throw new IllegalArgumentException("Invalid encoded position: invalid padding");
+        }
+        for (int i = 0; i < pieceCount; i++) {
+            if (nibble(high, low, i) >= Piece.NONE.ordinal()) {
+                throw new IllegalArgumentException("Invalid encoded position: unknown piece");
+            }
+        }
+
+        board.clear();
+        for (int i = 0; occupancy != 0L; i++) {
+            Square square = Square.squareAt(Long.numberOfTrailingZeros(occupancy));
+            board.setPiece(Piece.allPieces[nibble(high, low, i)], square);
+            occupancy = extractLsb(occupancy);
+        }
+        Side side = (status & BLACK_TO_MOVE) != 0 ? Side.BLACK : Side.WHITE;
+        board.setSideToMove(side);
+        board.getCastleRight().put(Side.WHITE, castleRights[(status >>> 1) & 3]);
+        board.getCastleRight().put(Side.BLACK, castleRights[(status >>> 3) & 3]);
+        if (enPassantFile != 0) {
+            board.setEnPassant(Square.squareAt((side == Side.WHITE ? 40 : 16) + enPassantFile - 1));
+        }
+        board.setHalfMoveCounter(halfMoveCounter);
+        board.setMoveCounter(moveCounter);
+        buffer.position(start + Board.ENCODED_POSITION_LENGTH);
+    }
+
+    /**
+     * Writes the encoding of the position of a board into a buffer, advancing the position of the buffer.
+     *
+     * @param board  the board to write
+     * @param buffer the buffer to write into
+     * @throws BufferOverflowException  if fewer than {@link Board#ENCODED_POSITION_LENGTH} bytes remain in the buffer
+     * @throws IllegalArgumentException if the board holds more than 32 pieces or its move counters do not fit the
+     *                                  encoding
+     */
+    static void write(Board board, ByteBuffer buffer) {
+        if (buffer.remaining() < Board.ENCODED_POSITION_LENGTH) {
+            throw new BufferOverflowException();
+        }
+        long occupancy = board.getBitboard();
+        if (Long.bitCount(occupancy) > MAX_PIECES) {
+            throw new IllegalArgumentException("Cannot encode a position with more than 32 pieces");
+        }
+        if (board.getHalfMoveCounter() < 0 || board.getHalfMoveCounter() > 0xFFFF || board.getMoveCounter() < 0) {
+            throw new IllegalArgumentException("Cannot encode the move counters of the position");
+        }
+        long high = 0L;
+        long low = 0L;
+        int i = 0;
+        for (long pieces = occupancy; pieces != 0L; pieces = extractLsb(pieces), i++) {
+            long code = board.getPiece(Square.squareAt(Long.numberOfTrailingZeros(pieces))).ordinal();
+            if (i < 16) {
+                high |= code << (60 - 4 * i);
+            } else {
+                low |= code << (60 - 4 * (i - 16));
+            }
+        }
+        int status = board.getSideToMove() == Side.BLACK ? BLACK_TO_MOVE : 0;
+        status |= castleRightBits[board.getCastleRight(Side.WHITE).ordinal()] << 1;
+        status |= castleRightBits[board.getCastleRight(Side.BLACK).ordinal()] << 3;
+        int enPassantFile = board.getEnPassant() != Square.NONE ? (board.getEnPassant().ordinal() & 7) + 1 : 0;
+
+        final int start = buffer.position();
+        putLong(buffer, start, occupancy);
+        putLong(buffer, start + PIECES_OFFSET, high);
+        putLong(buffer, start + PIECES_OFFSET + 8, low);
+        buffer.put(start + STATUS_OFFSET, (byte) status);
+        buffer.put(start + STATUS_OFFSET + 1, (byte) enPassantFile);
+        putShort(buffer, start + HALF_MOVE_COUNTER_OFFSET, (short) board.getHalfMoveCounter());
+        putInt(buffer, start + MOVE_COUNTER_OFFSET, board.getMoveCounter());
+        buffer.position(start + Board.ENCODED_POSITION_LENGTH);
+    }
+
+    private static int nibble(long high, long low, int index) {
+        return index < 16 ?
+                (int) (high >>> (60 - 4 * index)) & 0xF :
+                (int) (low >>> (60 - 4 * (index - 16))) & 0xF;
+    }
+
+    /*
+     * keeps only the nibbles following the first count ones of a 64-bit word
+     */
+    private static long mask(long word, int count) {
+        if (count == 0) {
+            return word;
+        }
+        return count < 16 ? word & (-1L >>> (4 * count)) : 0L;
+    }
+
+    private static boolean isBigEndian(ByteBuffer buffer) {
+        return buffer.order() == ByteOrder.BIG_ENDIAN;
+    }
+
+    private static long getLong(ByteBuffer buffer, int index) {
+        long value = buffer.getLong(index);
+        return isBigEndian(buffer) ? value : Long.reverseBytes(value);
+    }
+
+    private static int getInt(ByteBuffer buffer, int index) {
+        int value = buffer.getInt(index);
+        return isBigEndian(buffer) ? value : Integer.reverseBytes(value);
+    }
+
+    private static short getShort(ByteBuffer buffer, int index) {
+        short value = buffer.getShort(index);
+        return isBigEndian(buffer) ? value : Short.reverseBytes(value);
+    }
+
+    private static void putLong(ByteBuffer buffer, int index, long value) {
+        buffer.putLong(index, isBigEndian(buffer) ? value : Long.reverseBytes(value));
+    }
+
+    private static void putInt(ByteBuffer buffer, int index, int value) {
+        buffer.putInt(index, isBigEndian(buffer) ? value : Integer.reverseBytes(value));
+    }
+
+    private static void putShort(ByteBuffer buffer, int index, short value) {
+        buffer.putShort(index, isBigEndian(buffer) ? value : Short.reverseBytes(value));
+    }
+}
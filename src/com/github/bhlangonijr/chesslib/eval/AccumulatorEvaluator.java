@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.eval;
+
+import static com.github.bhlangonijr.chesslib.Bitboard.extractLsb;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.Square;
+
+/**
+ * An {@link IncrementalEvaluator} based on a neural network with a single hidden layer, in the style of the efficiently
+ * updatable neural networks (NNUE) used by chess engines. The 768 inputs of the network are the pieces on the board,
+ * one for each combination of piece and square, and they are transformed into two accumulators of 16-bit integers, one
+ * for each perspective: the position seen by white, and the position seen by black, with colors swapped and the board
+ * mirrored vertically. Setting or removing a piece adds or subtracts a single column of weights to each accumulator.
+ * <p>
+ * The score is computed applying a clipped ReLU, in the range {@code [0, 255]}, to the accumulators, and then the
+ * output layer, with the accumulator of the side to move first. The output is scaled by {@code 400 / (255 * 64)}, that
+ * is, the weights of the feature transformer are quantized by 255, and the ones of the output layer by 64. The output
+ * layer is computed with 64-bit integers, and the scaled score is clamped to the range of an {@code int}.
+ * <p>
+ * Networks are loaded from a weight file with {@link AccumulatorEvaluator#load(InputStream)}. The file holds, in
+ * big-endian order:
+ * <ul>
+ *     <li>the magic number {@code 0x43484e4e} ({@code "CHNN"}), as an int;</li>
+ *     <li>the size {@code N} of the hidden layer, as an int;</li>
+ *     <li>the {@code 768 * N} weights of the feature transformer, as shorts, grouped by input. The input of a piece
+ *     on a square is {@code 64 * ordinal + square}, where {@code ordinal} is the ordinal of the {@link Piece}, and
+ *     {@code square} the ordinal of the {@link Square};</li>
+ *     <li>the {@code N} biases of the feature transformer, as shorts;</li>
+ *     <li>the {@code 2 * N} weights of the output layer, as shorts;</li>
+ *     <li>the bias of the output layer, as an int.</li>
+ * </ul>
+ * The loops over the accumulators are plain loops over primitive arrays, which the JIT compiler turns into SIMD
+ * instructions where the hardware supports them, without depending on the incubating Vector API.
+ */
+public class AccumulatorEvaluator implements IncrementalEvaluator {
+
+    /**
+     * The number of inputs of the network, that is, the number of combinations of pieces and squares.
+     */
+    public static final int INPUT_SIZE = 768;
+
+    /**
+     * The magic number identifying a weight file.
+     */
+    public static final int MAGIC = 0x43484e4e;
+
+    private static final int MAX_HIDDEN_SIZE = 1 << 16;
+    private static final int QA = 255;
+    private static final int QB = 64;
+    private static final int SCALE = 400;
+
+    private final int hiddenSize;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+    private final short[] whiteAccumulator;
+    private final short[] blackAccumulator;
+
+    /**
+     * Constructs a new evaluator from the weights of a network. The arrays are not copied, and they are shared with
+     * the evaluators created with {@link AccumulatorEvaluator#copy()}.
+     *
+     * @param hiddenSize     the size of the hidden layer
+     * @param featureWeights the weights of the feature transformer, grouped by input
+     * @param featureBiases  the biases of the feature transformer
+     * @param outputWeights  the weights of the output layer, the ones applied to the side to move first
+     * @param outputBias     the bias of the output layer
+     * @throws IllegalArgumentException if the sizes of the arrays do not match the size of the hidden layer
+     */
+    public AccumulatorEvaluator(int hiddenSize, short[] featureWeights, short[] featureBiases, short[] outputWeights,
+                                int outputBias) {
+        if (hiddenSize <= 0 || hiddenSize > MAX_HIDDEN_SIZE) {
+            throw new IllegalArgumentException("Invalid hidden layer size: " + hiddenSize);
+        }
+        if (featureWeights.length != INPUT_SIZE * hiddenSize || featureBiases.length != hiddenSize ||
+                outputWeights.length != 2 * hiddenSize) {
+            throw new IllegalArgumentException("The weights do not match the hidden layer size " + hiddenSize);
+        }
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.whiteAccumulator = featureBiases.clone();
+        this.blackAccumulator = featureBiases.clone();
+    }
+
+    /**
+     * Loads a network from a weight file, returning a new evaluator that uses it. The stream is read up to the end of
+     * the network, and it is not closed.
+     *
+     * @param in the stream to read the weight file from
+     * @return the evaluator using the network
+     * @throws IOException if the stream cannot be read, or the weight file is malformed or truncated
+     */
+    public static AccumulatorEvaluator load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Invalid weight file: wrong magic number");
+        }
+        int hiddenSize = data.readInt();
+        if (hiddenSize <= 0 || hiddenSize > MAX_HIDDEN_SIZE) {
+            throw new IOException("Invalid weight file: invalid hidden layer size " + hiddenSize);
+        }
+        short[] featureWeights = readShorts(data, INPUT_SIZE * hiddenSize);
+        short[] featureBiases = readShorts(data, hiddenSize);
+        short[] outputWeights = readShorts(data, 2 * hiddenSize);
+        int outputBias = data.readInt();
+        return new AccumulatorEvaluator(hiddenSize, featureWeights, featureBiases, outputWeights, outputBias);
+    }
+
+    private static short[] readShorts(DataInputStream data, int count) throws IOException {
+        byte[] bytes = new byte[2 * count];
+        data.readFully(bytes);
+        short[] values = new short[count];
+        ByteBuffer.wrap(bytes).asShortBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * Returns a new evaluator sharing the network of this evaluator, with its own accumulators, so that it can be
+     * attached to another board.
+     *
+     * @return a new evaluator using the same network
+     */
+    public AccumulatorEvaluator copy() {
+        return new AccumulatorEvaluator(hiddenSize, featureWeights, featureBiases, outputWeights, outputBias);
+    }
+
+    /**
+     * Returns the size of the hidden layer of the network.
+     *
+     * @return the size of the hidden layer
+     */
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    @Override
+    public void reset(Board board) {
+        System.arraycopy(featureBiases, 0, whiteAccumulator, 0, hiddenSize);
+        System.arraycopy(featureBiases, 0, blackAccumulator, 0, hiddenSize);
+        for (Piece piece : Piece.allPieces) {
+            if (piece == Piece.NONE) {
+                continue;
+            }
+            for (long bb = board.getBitboard(piece); bb != 0L; bb = extractLsb(bb)) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                add(whiteAccumulator, whiteInput(piece.ordinal(), sq) * hiddenSize);
+                add(blackAccumulator, blackInput(piece.ordinal(), sq) * hiddenSize);
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(Piece piece, Square square) {
+        add(whiteAccumulator, whiteInput(piece.ordinal(), square.ordinal()) * hiddenSize);
+        add(blackAccumulator, blackInput(piece.ordinal(), square.ordinal()) * hiddenSize);
+    }
+
+    @Override
+    public void pieceRemoved(Piece piece, Square square) {
+        subtract(whiteAccumulator, whiteInput(piece.ordinal(), square.ordinal()) * hiddenSize);
+        subtract(blackAccumulator, blackInput(piece.ordinal(), square.ordinal()) * hiddenSize);
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        boolean white = board.getSideToMove() == Side.WHITE;
+        long sum = outputBias;
+        sum += activate(white ? whiteAccumulator : blackAccumulator, 0);
+        sum += activate(white ? blackAccumulator : whiteAccumulator, hiddenSize);
+        long score = sum * SCALE / (QA * QB);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, score));
+    }
+
+    /*
+     * the input of a piece on a square seen by black swaps the color of the piece and mirrors the square vertically
+     */
+    private static int whiteInput(int piece, int square) {
+        return 64 * piece + square;
+    }
+
+    private static int blackInput(int piece, int square) {
+        return 64 * ((piece + 6) % 12) + (square ^ 56);
+    }
+
+    private void add(short[] accumulator, int offset) {
+        final short[] weights = featureWeights;
+        final int size = hiddenSize;
+        for (int i = 0; i < size; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    private void subtract(short[] accumulator, int offset) {
+        final short[] weights = featureWeights;
+        final int size = hiddenSize;
+        for (int i = 0; i < size; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    /*
+     * each product fits an int, while their sum over a large hidden layer does not, hence it is accumulated as a long
+     */
+    private long activate(short[] accumulator, int offset) {
+        final short[] weights = outputWeights;
+        final int size = hiddenSize;
+        long sum = 0L;
+        for (int i = 0; i < size; i++) {
+            int value = accumulator[i];
+            value = value < 0 ? 0 : value;
+            value = value > QA ? QA : value;
+            sum += value * weights[offset + i];
+        }
+        return sum;
+    }
+}
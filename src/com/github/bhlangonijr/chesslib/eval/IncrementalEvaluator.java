@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.eval;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Square;
+
+/**
+ * A static evaluator of chess positions whose score is updated incrementally. Once attached to a board with
+ * {@link Board#setEvaluator(IncrementalEvaluator)}, the evaluator is notified of every piece set on or removed from the
+ * board, including the changes performed when moves are executed or reverted. Undoing a move notifies the opposite
+ * changes in reverse order, hence the evaluator rolls back to its previous state without keeping a history.
+ * <p>
+ * An evaluator holds the state of a single board and is not thread-safe.
+ *
+ * @see PstEvaluator
+ * @see AccumulatorEvaluator
+ */
+public interface IncrementalEvaluator {
+
+    /**
+     * Recomputes the state of the evaluator from scratch for the position of the board. The method is invoked when the
+     * evaluator is attached to the board, and whenever the board is cleared or overwritten.
+     *
+     * @param board the board to evaluate
+     */
+    void reset(Board board);
+
+    /**
+     * Method invoked when a piece is set on a square of the board.
+     *
+     * @param piece  the piece set on the square
+     * @param square the square the piece has been set to
+     */
+    void pieceAdded(Piece piece, Square square);
+
+    /**
+     * Method invoked when a piece is removed from a square of the board.
+     *
+     * @param piece  the piece removed from the square
+     * @param square the square the piece has been removed from
+     */
+    void pieceRemoved(Piece piece, Square square);
+
+    /**
+     * Returns the static score of the position of the board, in centipawns, from the point of view of the side to
+     * move. The board must be the one the evaluator is attached to.
+     *
+     * @param board the board to evaluate
+     * @return the score of the position, positive if the side to move is better
+     */
+    int evaluate(Board board);
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.eval;
+
+import static com.github.bhlangonijr.chesslib.Bitboard.extractLsb;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.Square;
+
+/**
+ * The default {@link IncrementalEvaluator}, based on tapered piece-square tables. The evaluator keeps two scores, one
+ * for the middlegame and one for the endgame, each one made of the material and of the piece-square bonuses of all the
+ * pieces on the board. The final score is the interpolation of the two, weighted by the game phase of the position
+ * (see {@link Board#getGamePhase()}).
+ * <p>
+ * The piece-square tables are the ones of the Simplified Evaluation Function by Tomasz Michniewski, with a dedicated
+ * endgame table for kings and pawns.
+ */
+public class PstEvaluator implements IncrementalEvaluator {
+
+    private static final int[] middlegameMaterial = {100, 320, 330, 500, 900, 0};
+    private static final int[] endgameMaterial = {120, 290, 330, 520, 950, 0};
+
+    // tables from the point of view of white, laid out from a8 to h1
+    private static final int[] pawnTable = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] pawnEndgameTable = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] knightTable = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] bishopTable = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] rookTable = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] queenTable = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] kingTable = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] kingEndgameTable = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    private static final int[][] middlegameTables = {
+            pawnTable, knightTable, bishopTable, rookTable, queenTable, kingTable
+    };
+    private static final int[][] endgameTables = {
+            pawnEndgameTable, knightTable, bishopTable, rookTable, queenTable, kingEndgameTable
+    };
+
+    // signed scores from the point of view of white, including the material, indexed by piece ordinal and square
+    private static final int[][] middlegameScores = new int[Piece.NONE.ordinal()][64];
+    private static final int[][] endgameScores = new int[Piece.NONE.ordinal()][64];
+
+    static {
+        for (Piece piece : Piece.allPieces) {
+            if (piece == Piece.NONE) {
+                continue;
+            }
+            int type = piece.getPieceType().ordinal();
+            boolean white = piece.getPieceSide() == Side.WHITE;
+            for (int sq = 0; sq < 64; sq++) {
+                // tables are laid out from the 8th rank, hence the squares of white are mirrored
+                int index = white ? sq ^ 56 : sq;
+                int middlegame = middlegameMaterial[type] + middlegameTables[type][index];
+                int endgame = endgameMaterial[type] + endgameTables[type][index];
+                middlegameScores[piece.ordinal()][sq] = white ? middlegame : -middlegame;
+                endgameScores[piece.ordinal()][sq] = white ? endgame : -endgame;
+            }
+        }
+    }
+
+    private int middlegame;
+    private int endgame;
+
+    @Override
+    public void reset(Board board) {
+        middlegame = 0;
+        endgame = 0;
+        for (Piece piece : Piece.allPieces) {
+            if (piece == Piece.NONE) {
+                continue;
+            }
+            for (long bb = board.getBitboard(piece); bb != 0L; bb = extractLsb(bb)) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                middlegame += middlegameScores[piece.ordinal()][sq];
+                endgame += endgameScores[piece.ordinal()][sq];
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(Piece piece, Square square) {
+        middlegame += middlegameScores[piece.ordinal()][square.ordinal()];
+        endgame += endgameScores[piece.ordinal()][square.ordinal()];
+    }
+
+    @Override
+    public void pieceRemoved(Piece piece, Square square) {
+        middlegame -= middlegameScores[piece.ordinal()][square.ordinal()];
+        endgame -= endgameScores[piece.ordinal()][square.ordinal()];
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        int phase = Math.min(board.getGamePhase(), Board.MAX_GAME_PHASE);
+        int score = (middlegame * phase + endgame * (Board.MAX_GAME_PHASE - phase)) / Board.MAX_GAME_PHASE;
+        return board.getSideToMove() == Side.WHITE ? score : -score;
+    }
+
+    /**
+     * Returns the middlegame score of the position, from the point of view of white.
+     *
+     * @return the middlegame score
+     */
+    public int getMiddlegameScore() {
+        return middlegame;
+    }
+
+    /**
+     * Returns the endgame score of the position, from the point of view of white.
+     *
+     * @return the endgame score
+     */
+    public int getEndgameScore() {
+        return endgame;
+    }
+}
@@ -22,7 +22,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import com.github.bhlangonijr.chesslib.Board;
-import com.github.bhlangonijr.chesslib.move.Move;
 import com.github.bhlangonijr.chesslib.move.MoveConversionException;
 import com.github.bhlangonijr.chesslib.move.MoveException;
 import com.github.bhlangonijr.chesslib.move.MoveList;
@@ -908,19 +907,12 @@ public class Game {
         setCurrentMoveList(moves);
         if (getBoard() != null &&
                 index >= 0 && index < moves.size()) {
-            getBoard().loadFromFen(moves.getStartFen());
-
-            int i = 0;
-            for (Move move : moves) {
-                if (!getBoard().doMove(move, true)) {
-                    throw new MoveException("Couldn't load board state. Reason: Illegal move in PGN MoveText.");
-                }
-                i++;
-                if (i - 1 == index) {
-                    break;
-                }
+            try {
+                moves.loadPosition(getBoard(), index + 1);
+            } catch (MoveConversionException e) {
+                throw new MoveException("Couldn't load board state. Reason: Illegal move in PGN MoveText.");
             }
-            setPosition(i - 1);
+            setPosition(index);
 
         }
 
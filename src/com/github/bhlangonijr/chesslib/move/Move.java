@@ -18,7 +18,10 @@ package com.github.bhlangonijr.chesslib.move;
 
 import com.github.bhlangonijr.chesslib.BoardEvent;
 import com.github.bhlangonijr.chesslib.BoardEventType;
+import com.github.bhlangonijr.chesslib.File;
 import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.Rank;
 import com.github.bhlangonijr.chesslib.Side;
 import com.github.bhlangonijr.chesslib.Square;
 import org.apache.commons.lang3.StringUtils;
@@ -27,14 +30,59 @@ import org.apache.commons.lang3.StringUtils;
  * The definition of a chess move, that is, a piece movement from its starting square (the origin square) to a
  * destination square. Optionally, the move could specify a promotion piece used to replace a pawn in case of promotion.
  * <p>
+ * Every move is identified by a stable integer id (see {@link Move#getId()}), that can be used as an index of arrays
+ * holding per-move data, such as history tables or move statistics. All the moves that can be legal in a standard game
+ * of chess are preallocated in a table of shared instances, retrievable through the {@code valueOf} factory methods,
+ * so that move generators and parsers do not need to allocate new moves. Shared instances are immutable, hence
+ * their Short Algebraic Notation (SAN) is not stored in the move, but in the {@link MoveList} holding it.
+ * <p>
  * The move is also a {@link BoardEvent}, and hence it can be passed to the observers of the
  * {@link BoardEventType#ON_MOVE} events, emitted when a move is executed on a board.
  */
 public class Move implements BoardEvent {
 
+    /**
+     * The number of distinct move ids, that is, the size of an array indexed by move id. The ids of the moves that
+     * are not promotions are lower than 4096.
+     */
+    public static final int ID_COUNT = 13 * 64 * 64;
+    /**
+     * The id of the moves whose origin or destination square is {@link Square#NONE}, such as the null move.
+     */
+    public static final int NONE_ID = -1;
+
+    private static final Move[] sharedMoves = new Move[ID_COUNT];
+    private static final PieceType[] promotionTypes = {
+            PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN
+    };
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                Move move = new Move(Square.squareAt(from), Square.squareAt(to), Piece.NONE);
+                sharedMoves[move.id] = move;
+            }
+        }
+        for (Side side : Side.allSides) {
+            Rank fromRank = side == Side.WHITE ? Rank.RANK_7 : Rank.RANK_2;
+            Rank toRank = side == Side.WHITE ? Rank.RANK_8 : Rank.RANK_1;
+            for (int file = 0; file < 8; file++) {
+                Square from = Square.encode(fromRank, File.allFiles[file]);
+                for (int toFile = Math.max(0, file - 1); toFile <= Math.min(7, file + 1); toFile++) {
+                    Square to = Square.encode(toRank, File.allFiles[toFile]);
+                    for (PieceType type : promotionTypes) {
+                        Move move = new Move(from, to, Piece.make(side, type));
+                        sharedMoves[move.id] = move;
+                    }
+                }
+            }
+        }
+    }
+
     private final Square from;
     private final Square to;
     private final Piece promotion;
+    private final int id;
     private String san;
 
     /**
@@ -60,6 +108,7 @@ public class Move implements BoardEvent {
         this.promotion = promotion;
         this.from = from;
         this.to = to;
+        this.id = id(from, to, promotion);
     }
 
     /**
@@ -73,13 +122,103 @@ public class Move implements BoardEvent {
      * @param side the side used to disambiguate the promotion piece
      */
     public Move(String move, Side side) {
-        this(Square.valueOf(move.substring(0, 2).toUpperCase()),
-                Square.valueOf(move.substring(2, 4).toUpperCase()),
-                move.length() < 5 ? Piece.NONE : Side.WHITE.equals(side) ?
-                        Piece.fromFenSymbol(
-                                move.substring(4, 5).toUpperCase()) :
-                        Piece.fromFenSymbol(
-                                move.substring(4, 5).toLowerCase()));
+        this(parseSquare(move, 0), parseSquare(move, 2), parsePromotion(move, side));
+    }
+
+    /**
+     * Returns the shared instance of a move, defined by its origin square, its destination, and a promotion piece. If
+     * the move can not be legal in a standard game of chess, such as a promotion from a wrong rank, a new instance is
+     * returned instead.
+     *
+     * @param from      the origin square
+     * @param to        the destination square
+     * @param promotion the promotion piece
+     * @return the move
+     */
+    public static Move valueOf(Square from, Square to, Piece promotion) {
+        int id = id(from, to, promotion);
+        Move move = id == NONE_ID ? null : sharedMoves[id];
+        return move != null ? move : new Move(from, to, promotion);
+    }
+
+    /**
+     * Returns the shared instance of a move, defined by its origin and destination squares.
+     * <p>
+     * Same as {@code Move.valueOf(from, to, Piece.NONE)}.
+     *
+     * @param from the origin square
+     * @param to   the destination square
+     * @return the move
+     */
+    public static Move valueOf(Square from, Square to) {
+        return valueOf(from, to, Piece.NONE);
+    }
+
+    /**
+     * Returns the shared instance of a move, given a string representing the coordinates of the origin and
+     * destination squares, and possibly a promotion piece. The side is used to disambiguate the color of the promotion
+     * piece. The string is parsed as for {@link Move#Move(String, Side)}.
+     *
+     * @param move the string representing the coordinates of the move
+     * @param side the side used to disambiguate the promotion piece
+     * @return the move
+     * @throws IllegalArgumentException if the string does not represent a move
+     */
+    public static Move valueOf(String move, Side side) {
+        return valueOf(parseSquare(move, 0), parseSquare(move, 2), parsePromotion(move, side));
+    }
+
+    /**
+     * Returns the shared instance of the move with the given id.
+     *
+     * @param id the id of the move
+     * @return the move with the given id
+     * @throws IllegalArgumentException if no shared move has the given id
+     * @see Move#getId()
+     */
+    public static Move valueOf(int id) {
+        Move move = id >= 0 && id < ID_COUNT ? sharedMoves[id] : null;
+        if (move == null) {
+            throw new IllegalArgumentException("Unknown move id " + id);
+        }
+        return move;
+    }
+
+    /*
+     * the promotion piece is stored as its ordinal plus one, so that the ids of the moves that are not promotions
+     * only depend on their squares
+     */
+    private static int id(Square from, Square to, Piece promotion) {
+        if (from == Square.NONE || to == Square.NONE) {
+            return NONE_ID;
+        }
+        int promotionIndex = promotion == Piece.NONE ? 0 : promotion.ordinal() + 1;
+        return from.ordinal() | (to.ordinal() << 6) | (promotionIndex << 12);
+    }
+
+    private static Square parseSquare(String move, int index) {
+        if (move.length() < index + 2) {
+            throw new IllegalArgumentException("Invalid move '" + move + "'");
+        }
+        int file = Character.toLowerCase(move.charAt(index)) - 'a';
+        int rank = move.charAt(index + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw new IllegalArgumentException("Invalid move '" + move + "'");
+        }
+        return Square.squareAt(rank * 8 + file);
+    }
+
+    private static Piece parsePromotion(String move, Side side) {
+        if (move.length() < 5) {
+            return Piece.NONE;
+        }
+        char symbol = move.charAt(4);
+        Piece promotion = Piece.fromFenSymbol(Side.WHITE.equals(side) ?
+                Character.toUpperCase(symbol) : Character.toLowerCase(symbol));
+        if (promotion == Piece.NONE) {
+            throw new IllegalArgumentException("Invalid move '" + move + "'");
+        }
+        return promotion;
     }
 
     /**
@@ -109,6 +248,17 @@ public class Move implements BoardEvent {
         return promotion;
     }
 
+    /**
+     * Returns the id of the move. Equal moves have the same id, and the ids of all the moves with valid squares are
+     * between 0 and {@link Move#ID_COUNT} (excluded), so that they can be used as array indexes.
+     *
+     * @return the id of the move, or {@link Move#NONE_ID} if the origin or the destination square is
+     * {@link Square#NONE}
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Checks if this move is equivalent to another, according to its definition.
      *
@@ -117,13 +267,19 @@ public class Move implements BoardEvent {
      */
     @Override
     public boolean equals(Object obj) {
-        if (obj == null || !(obj instanceof Move)) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Move)) {
             return false;
         }
         Move move = (Move) obj;
-        return move.getFrom().equals(getFrom()) &&
-                move.getTo().equals(getTo()) &&
-                move.getPromotion().equals(getPromotion());
+        if (id != NONE_ID || move.id != NONE_ID) {
+            return id == move.id;
+        }
+        return move.getFrom() == getFrom() &&
+                move.getTo() == getTo() &&
+                move.getPromotion() == getPromotion();
 
     }
 
@@ -134,7 +290,7 @@ public class Move implements BoardEvent {
      */
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return id;
     }
 
     /**
@@ -165,9 +321,16 @@ public class Move implements BoardEvent {
 
     /**
      * Returns the Short Algebraic Notation (SAN) of the move, if previously set.
+     * <p>
+     * Only moves instantiated through their constructors can hold their SAN. Shared instances, such as the ones
+     * returned by {@link Move#valueOf(Square, Square, Piece)}, by the move generators and by the SAN parser of
+     * {@link MoveList}, never do, and the method always returns null for them. The SAN of the moves of a list,
+     * including the one provided when adding them with {@link MoveList#addSanMove(String)}, is to be retrieved from
+     * the list itself, using {@link MoveList#getSan(int)} or {@link MoveList#toSanArray()}.
      *
      * @return the representation of the move in SAN notation, or null if not present
      * @see Move#setSan(String)
+     * @see MoveList#getSan(int)
      */
     public String getSan() {
         return san;
@@ -177,11 +340,19 @@ public class Move implements BoardEvent {
      * Sets the Short Algebraic Notation (SAN) of the move.
      * <p>
      * The SAN notation should be set explicitly after the instantiation of the move because it can not be inferred
-     * without the full context of the specific position.
+     * without the full context of the specific position. The value is stored on moves instantiated through their
+     * constructors, while shared instances are immutable and do not hold it (see {@link Move#getSan()}).
      *
      * @param san the representation of the move in SAN notation
+     * @see Move#valueOf(Square, Square, Piece)
+     * @deprecated the SAN of a move depends on the position, use {@link MoveList#getSan(int)} or
+     * {@link MoveList#toSanArray()} instead
      */
+    @Deprecated
     public void setSan(String san) {
+        if (id != NONE_ID && sharedMoves[id] == this) {
+            return;
+        }
         this.san = san;
     }
 
@@ -26,9 +26,33 @@ import static com.github.bhlangonijr.chesslib.Bitboard.extractLsb;
 
 /**
  * A handy collection of static utility methods for generating moves from a chess position.
+ * <p>
+ * Moves can be generated either as lists of {@link Move} instances, or packed into primitive {@code int} values (see
+ * {@link PackedMove}) and written into a caller-supplied array. The array-based methods do not allocate any object
+ * and should be preferred in performance-critical code; the list-based methods are thin adapters over them.
  */
 public class MoveGenerator {
 
+    /**
+     * The maximum number of moves that can be generated from a single position. Arrays passed to the array-based
+     * generation methods should be at least this size.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private static final ThreadLocal<int[]> moveBuffer = ThreadLocal.withInitial(() -> new int[MAX_MOVES]);
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_3 = RANK_1 << 16;
+    private static final long RANK_6 = RANK_1 << 40;
+    private static final long RANK_8 = RANK_1 << 56;
+    private static final Piece[] whitePromotions = {
+            Piece.WHITE_QUEEN, Piece.WHITE_ROOK, Piece.WHITE_BISHOP, Piece.WHITE_KNIGHT
+    };
+    private static final Piece[] blackPromotions = {
+            Piece.BLACK_QUEEN, Piece.BLACK_ROOK, Piece.BLACK_BISHOP, Piece.BLACK_KNIGHT
+    };
+
     private MoveGenerator() {
     }
 
@@ -43,21 +67,41 @@ public class MoveGenerator {
      * @param moves a mutable list in which to append the generated pawn captures
      */
     public static void generatePawnCaptures(Board board, List<Move> moves) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generatePawnCaptures(board, buffer, 0));
+    }
+
+    /**
+     * Generates all pawn captures for the playing side in the given position, and writes them as packed moves into the
+     * array passed as an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the captures are legal according to the standard rules of
+     * pawn movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the pawn captures
+     * @param moves  the array in which to write the generated pawn captures
+     * @param offset the index of the array from which to start writing moves
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generatePawnCaptures(Board board, int[] moves, int offset) {
         Side side = board.getSideToMove();
-        long pieces = board.getBitboard(Piece.make(side, PieceType.PAWN));
-        while (pieces != 0L) {
-            int sourceIndex = bitScanForward(pieces);
-            pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(sourceIndex);
-            long attacks = Bitboard.getPawnCaptures(side, sqSource,
-                    board.getBitboard(), board.getEnPassantTarget()) & ~board.getBitboard(side);
-            while (attacks != 0L) {
-                int targetIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(targetIndex);
-                addPromotions(moves, side, sqTarget, sqSource);
-            }
+        long pawns = board.getBitboard(Piece.make(side, PieceType.PAWN));
+        long targets = board.getBitboard(side.flip());
+        long enPassant = 0L;
+        Square enPassantTarget = board.getEnPassantTarget();
+        if (enPassantTarget != Square.NONE) {
+            enPassant = side == Side.WHITE ? enPassantTarget.getBitboard() << 8 : enPassantTarget.getBitboard() >>> 8;
+            targets |= enPassant;
+        }
+        if (side == Side.WHITE) {
+            offset = addPawnMoves(moves, offset, side, ((pawns & ~FILE_A) << 7) & targets, 7, enPassant);
+            offset = addPawnMoves(moves, offset, side, ((pawns & ~FILE_H) << 9) & targets, 9, enPassant);
+        } else {
+            offset = addPawnMoves(moves, offset, side, ((pawns & ~FILE_H) >>> 7) & targets, -7, enPassant);
+            offset = addPawnMoves(moves, offset, side, ((pawns & ~FILE_A) >>> 9) & targets, -9, enPassant);
         }
+        return offset;
     }
 
     /**
@@ -71,36 +115,78 @@ public class MoveGenerator {
      * @param moves a mutable list in which to append the generated pawn moves
      */
     public static void generatePawnMoves(Board board, List<Move> moves) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generatePawnMoves(board, buffer, 0));
+    }
+
+    /**
+     * Generates all pawn moves, excluding captures, for the playing side in the given position, and writes them as
+     * packed moves into the array passed as an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the moves are legal according to the standard rules of
+     * pawn movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the pawn moves
+     * @param moves  the array in which to write the generated pawn moves
+     * @param offset the index of the array from which to start writing moves
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generatePawnMoves(Board board, int[] moves, int offset) {
         Side side = board.getSideToMove();
-        long pieces = board.getBitboard(Piece.make(side, PieceType.PAWN));
-        while (pieces != 0L) {
-            int sourceIndex = bitScanForward(pieces);
-            pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(sourceIndex);
-            long attacks = Bitboard.getPawnMoves(side, sqSource, board.getBitboard());
-            while (attacks != 0L) {
-                int targetIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(targetIndex);
-                addPromotions(moves, side, sqTarget, sqSource);
+        long pawns = board.getBitboard(Piece.make(side, PieceType.PAWN));
+        long empty = ~board.getBitboard();
+        if (side == Side.WHITE) {
+            long pushes = (pawns << 8) & empty;
+            offset = addPawnMoves(moves, offset, side, pushes, 8, 0L);
+            offset = addPawnMoves(moves, offset, side, ((pushes & RANK_3) << 8) & empty, 16, 0L);
+        } else {
+            long pushes = (pawns >>> 8) & empty;
+            offset = addPawnMoves(moves, offset, side, pushes, -8, 0L);
+            offset = addPawnMoves(moves, offset, side, ((pushes & RANK_6) >>> 8) & empty, -16, 0L);
+        }
+        return offset;
+    }
+
+    /*
+     * serializes the pawn moves to a set of target squares, all reached from origin squares shifted by the same delta:
+     * the kind of move (push, double push or capture) is inferred from the delta
+     */
+    private static int addPawnMoves(int[] moves, int offset, Side side, long targets, int delta, long enPassant) {
+        boolean capture = (delta & 1) != 0;
+        int flags = capture ? PackedMove.CAPTURE : (delta == 16 || delta == -16 ? PackedMove.DOUBLE_PUSH : 0);
+        long promotions = targets & (side == Side.WHITE ? RANK_8 : RANK_1);
+        targets ^= promotions;
+        while (targets != 0L) {
+            int targetIndex = bitScanForward(targets);
+            targets = extractLsb(targets);
+            int moveFlags = ((enPassant >>> targetIndex) & 1L) != 0L ? flags | PackedMove.EN_PASSANT : flags;
+            moves[offset++] = PackedMove.encode(targetIndex - delta, targetIndex, Piece.NONE, moveFlags);
+        }
+        Piece[] promotionPieces = side == Side.WHITE ? whitePromotions : blackPromotions;
+        while (promotions != 0L) {
+            int targetIndex = bitScanForward(promotions);
+            promotions = extractLsb(promotions);
+            for (Piece promotion : promotionPieces) {
+                moves[offset++] = PackedMove.encode(targetIndex - delta, targetIndex, promotion, flags);
             }
         }
+        return offset;
     }
 
-    private static void addPromotions(List<Move> moves, Side side, Square sqTarget, Square sqSource) {
+    private static int addMoves(int[] moves, int offset, int sourceIndex, long attacks, long enemies) {
+        while (attacks != 0L) {
+            int targetIndex = bitScanForward(attacks);
+            attacks = extractLsb(attacks);
+            int flags = (enemies & (1L << targetIndex)) != 0L ? PackedMove.CAPTURE : 0;
+            moves[offset++] = PackedMove.encode(sourceIndex, targetIndex, Piece.NONE, flags);
+        }
+        return offset;
+    }
 
-        if (Side.WHITE.equals(side) && Rank.RANK_8.equals(sqTarget.getRank())) {
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_QUEEN));
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_ROOK));
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_BISHOP));
-            moves.add(new Move(sqSource, sqTarget, Piece.WHITE_KNIGHT));
-        } else if (Side.BLACK.equals(side) && Rank.RANK_1.equals(sqTarget.getRank())) {
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_QUEEN));
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_ROOK));
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_BISHOP));
-            moves.add(new Move(sqSource, sqTarget, Piece.BLACK_KNIGHT));
-        } else {
-            moves.add(new Move(sqSource, sqTarget, Piece.NONE));
+    private static void addMoves(List<Move> moves, int[] packedMoves, int count) {
+        for (int i = 0; i < count; i++) {
+            moves.add(PackedMove.toMove(packedMoves[i]));
         }
     }
 
@@ -117,20 +203,36 @@ public class MoveGenerator {
      * @param mask  bitboard mask of allowed targets
      */
     public static void generateKnightMoves(Board board, List<Move> moves, long mask) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateKnightMoves(board, buffer, 0, mask));
+    }
+
+    /**
+     * Generates all knight moves for the playing side in the given position, according to a bitboard mask used to
+     * specify the allowed target squares on the board. The generated moves are written as packed moves into the array
+     * passed as an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the moves are legal according to the standard rules of
+     * knight movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the knight moves
+     * @param moves  the array in which to write the generated knight moves
+     * @param offset the index of the array from which to start writing moves
+     * @param mask   bitboard mask of allowed targets
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generateKnightMoves(Board board, int[] moves, int offset, long mask) {
         Side side = board.getSideToMove();
+        long enemies = board.getBitboard(side.flip());
         long pieces = board.getBitboard(Piece.make(side, PieceType.KNIGHT));
         while (pieces != 0L) {
-            int knightIndex = bitScanForward(pieces);
+            int sourceIndex = bitScanForward(pieces);
             pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(knightIndex);
-            long attacks = Bitboard.getKnightAttacks(sqSource, mask);
-            while (attacks != 0L) {
-                int attackIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
-            }
+            long attacks = Bitboard.getKnightAttacks(Square.squareAt(sourceIndex), mask);
+            offset = addMoves(moves, offset, sourceIndex, attacks, enemies);
         }
+        return offset;
     }
 
     /**
@@ -162,20 +264,36 @@ public class MoveGenerator {
      * @param mask  bitboard mask of allowed targets
      */
     public static void generateBishopMoves(Board board, List<Move> moves, long mask) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateBishopMoves(board, buffer, 0, mask));
+    }
+
+    /**
+     * Generates all bishop moves for the playing side in the given position, according to a bitboard mask used to
+     * specify the allowed target squares on the board. The generated moves are written as packed moves into the array
+     * passed as an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the moves are legal according to the standard rules of
+     * bishop movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the bishop moves
+     * @param moves  the array in which to write the generated bishop moves
+     * @param offset the index of the array from which to start writing moves
+     * @param mask   bitboard mask of allowed targets
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generateBishopMoves(Board board, int[] moves, int offset, long mask) {
         Side side = board.getSideToMove();
+        long enemies = board.getBitboard(side.flip());
         long pieces = board.getBitboard(Piece.make(side, PieceType.BISHOP));
         while (pieces != 0L) {
             int sourceIndex = bitScanForward(pieces);
             pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(sourceIndex);
-            long attacks = Bitboard.getBishopAttacks(board.getBitboard(), sqSource) & mask;
-            while (attacks != 0L) {
-                int attackIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
-            }
+            long attacks = Bitboard.getBishopAttacks(board.getBitboard(), Square.squareAt(sourceIndex)) & mask;
+            offset = addMoves(moves, offset, sourceIndex, attacks, enemies);
         }
+        return offset;
     }
 
     /**
@@ -207,20 +325,36 @@ public class MoveGenerator {
      * @param mask  bitboard mask of allowed targets
      */
     public static void generateRookMoves(Board board, List<Move> moves, long mask) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateRookMoves(board, buffer, 0, mask));
+    }
+
+    /**
+     * Generates all rook moves for the playing side in the given position, according to a bitboard mask used to specify
+     * the allowed target squares on the board. The generated moves are written as packed moves into the array passed as
+     * an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the moves are legal according to the standard rules of
+     * rook movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the rook moves
+     * @param moves  the array in which to write the generated rook moves
+     * @param offset the index of the array from which to start writing moves
+     * @param mask   bitboard mask of allowed targets
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generateRookMoves(Board board, int[] moves, int offset, long mask) {
         Side side = board.getSideToMove();
+        long enemies = board.getBitboard(side.flip());
         long pieces = board.getBitboard(Piece.make(side, PieceType.ROOK));
         while (pieces != 0L) {
             int sourceIndex = bitScanForward(pieces);
             pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(sourceIndex);
-            long attacks = Bitboard.getRookAttacks(board.getBitboard(), sqSource) & mask;
-            while (attacks != 0L) {
-                int attackIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
-            }
+            long attacks = Bitboard.getRookAttacks(board.getBitboard(), Square.squareAt(sourceIndex)) & mask;
+            offset = addMoves(moves, offset, sourceIndex, attacks, enemies);
         }
+        return offset;
     }
 
     /**
@@ -252,20 +386,36 @@ public class MoveGenerator {
      * @param mask  bitboard mask of allowed targets
      */
     public static void generateQueenMoves(Board board, List<Move> moves, long mask) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateQueenMoves(board, buffer, 0, mask));
+    }
+
+    /**
+     * Generates all queen moves for the playing side in the given position, according to a bitboard mask used to
+     * specify the allowed target squares on the board. The generated moves are written as packed moves into the array
+     * passed as an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the moves are legal according to the standard rules of
+     * queen movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the queen moves
+     * @param moves  the array in which to write the generated queen moves
+     * @param offset the index of the array from which to start writing moves
+     * @param mask   bitboard mask of allowed targets
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generateQueenMoves(Board board, int[] moves, int offset, long mask) {
         Side side = board.getSideToMove();
+        long enemies = board.getBitboard(side.flip());
         long pieces = board.getBitboard(Piece.make(side, PieceType.QUEEN));
         while (pieces != 0L) {
             int sourceIndex = bitScanForward(pieces);
             pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(sourceIndex);
-            long attacks = Bitboard.getQueenAttacks(board.getBitboard(), sqSource) & mask;
-            while (attacks != 0L) {
-                int attackIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
-            }
+            long attacks = Bitboard.getQueenAttacks(board.getBitboard(), Square.squareAt(sourceIndex)) & mask;
+            offset = addMoves(moves, offset, sourceIndex, attacks, enemies);
         }
+        return offset;
     }
 
     /**
@@ -297,20 +447,36 @@ public class MoveGenerator {
      * @param mask  bitboard mask of allowed targets
      */
     public static void generateKingMoves(Board board, List<Move> moves, long mask) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateKingMoves(board, buffer, 0, mask));
+    }
+
+    /**
+     * Generates all king moves for the playing side in the given position, according to a bitboard mask used to specify
+     * the allowed target squares on the board. The generated moves are written as packed moves into the array passed as
+     * an argument, starting at the given offset.
+     * <p>
+     * All moves have to be considered pseudo-legal: although the moves are legal according to the standard rules of
+     * king movements, the resulting position might not be considered legal after they are played on the board.
+     *
+     * @param board  the board from which to generate the king moves
+     * @param moves  the array in which to write the generated king moves
+     * @param offset the index of the array from which to start writing moves
+     * @param mask   bitboard mask of allowed targets
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generateKingMoves(Board board, int[] moves, int offset, long mask) {
         Side side = board.getSideToMove();
+        long enemies = board.getBitboard(side.flip());
         long pieces = board.getBitboard(Piece.make(side, PieceType.KING));
         while (pieces != 0L) {
             int sourceIndex = bitScanForward(pieces);
             pieces = extractLsb(pieces);
-            Square sqSource = Square.squareAt(sourceIndex);
-            long attacks = Bitboard.getKingAttacks(sqSource, mask);
-            while (attacks != 0L) {
-                int attackIndex = bitScanForward(attacks);
-                attacks = extractLsb(attacks);
-                Square sqTarget = Square.squareAt(attackIndex);
-                moves.add(new Move(sqSource, sqTarget, Piece.NONE));
-            }
+            long attacks = Bitboard.getKingAttacks(Square.squareAt(sourceIndex), mask);
+            offset = addMoves(moves, offset, sourceIndex, attacks, enemies);
         }
+        return offset;
     }
 
     /**
@@ -336,15 +502,32 @@ public class MoveGenerator {
      * @param moves a mutable list in which to append the generated castle moves
      */
     public static void generateCastleMoves(Board board, List<Move> moves) {
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateCastleMoves(board, buffer, 0));
+    }
+
+    /**
+     * Generates all castle moves for the playing side in the given position, and writes them as packed moves into the
+     * array passed as an argument, starting at the given offset.
+     *
+     * @param board  the board from which to generate the castle moves
+     * @param moves  the array in which to write the generated castle moves
+     * @param offset the index of the array from which to start writing moves
+     * @return the index of the array following the last move written
+     * @see PackedMove
+     */
+    public static int generateCastleMoves(Board board, int[] moves, int offset) {
         Side side = board.getSideToMove();
         if (board.isKingAttacked()) {
-            return;
+            return offset;
         }
         if (board.getCastleRight(side).equals(CastleRight.KING_AND_QUEEN_SIDE) ||
                 (board.getCastleRight(side).equals(CastleRight.KING_SIDE))) {
             if ((board.getBitboard() & board.getContext().getooAllSquaresBb(side)) == 0L) {
                 if (!board.isSquareAttackedBy(board.getContext().getooSquares(side), side.flip())) {
-                    moves.add(board.getContext().getoo(side));
+                    Move oo = board.getContext().getoo(side);
+                    moves[offset++] = PackedMove.encode(oo.getFrom().ordinal(), oo.getTo().ordinal(),
+                            Piece.NONE, PackedMove.CASTLE);
                 }
             }
         }
@@ -352,10 +535,13 @@ public class MoveGenerator {
                 (board.getCastleRight(side).equals(CastleRight.QUEEN_SIDE))) {
             if ((board.getBitboard() & board.getContext().getoooAllSquaresBb(side)) == 0L) {
                 if (!board.isSquareAttackedBy(board.getContext().getoooSquares(side), side.flip())) {
-                    moves.add(board.getContext().getooo(side));
+                    Move ooo = board.getContext().getooo(side);
+                    moves[offset++] = PackedMove.encode(ooo.getFrom().ordinal(), ooo.getTo().ordinal(),
+                            Piece.NONE, PackedMove.CASTLE);
                 }
             }
         }
+        return offset;
     }
 
     /**
@@ -369,17 +555,35 @@ public class MoveGenerator {
      */
     public static List<Move> generatePseudoLegalMoves(Board board) {
         List<Move> moves = new LinkedList<>();
-        generatePawnCaptures(board, moves);
-        generatePawnMoves(board, moves);
-        generateKnightMoves(board, moves);
-        generateBishopMoves(board, moves);
-        generateRookMoves(board, moves);
-        generateQueenMoves(board, moves);
-        generateKingMoves(board, moves);
-        generateCastleMoves(board, moves);
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generatePseudoLegalMoves(board, buffer));
         return moves;
     }
 
+    /**
+     * Generates all possible pseudo-legal moves for the given position, and writes them as packed moves into the array
+     * passed as an argument, starting at index 0. The array should be at least {@link MoveGenerator#MAX_MOVES} long.
+     * <p>
+     * A move is considered pseudo-legal when it is legal according to the standard rules of chess piece movements, but
+     * the resulting position might not be legal because of other rules (e.g. checks to the king).
+     *
+     * @param board the board from which to generate the pseudo-legal moves
+     * @param moves the array in which to write the generated moves
+     * @return the number of pseudo-legal moves written into the array
+     * @see PackedMove
+     */
+    public static int generatePseudoLegalMoves(Board board, int[] moves) {
+        long mask = ~board.getBitboard(board.getSideToMove());
+        int count = generatePawnCaptures(board, moves, 0);
+        count = generatePawnMoves(board, moves, count);
+        count = generateKnightMoves(board, moves, count, mask);
+        count = generateBishopMoves(board, moves, count, mask);
+        count = generateRookMoves(board, moves, count, mask);
+        count = generateQueenMoves(board, moves, count, mask);
+        count = generateKingMoves(board, moves, count, mask);
+        return generateCastleMoves(board, moves, count);
+    }
+
     /**
      * Returns the list of all possible pseudo-legal captures for the given position.
      * <p>
@@ -392,16 +596,35 @@ public class MoveGenerator {
      */
     public static List<Move> generatePseudoLegalCaptures(Board board) {
         List<Move> moves = new LinkedList<>();
-        Side other = board.getSideToMove().flip();
-        generatePawnCaptures(board, moves);
-        generateKnightMoves(board, moves, board.getBitboard(other));
-        generateBishopMoves(board, moves, board.getBitboard(other));
-        generateRookMoves(board, moves, board.getBitboard(other));
-        generateQueenMoves(board, moves, board.getBitboard(other));
-        generateKingMoves(board, moves, board.getBitboard(other));
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generatePseudoLegalCaptures(board, buffer));
         return moves;
     }
 
+    /**
+     * Generates all possible pseudo-legal captures for the given position, and writes them as packed moves into the
+     * array passed as an argument, starting at index 0. The array should be at least {@link MoveGenerator#MAX_MOVES}
+     * long.
+     * <p>
+     * A move is considered a pseudo-legal capture when it takes an enemy piece and it is legal according to the
+     * standard rules of chess piece movements, but the resulting position might not be legal because of other rules
+     * (e.g. checks to the king).
+     *
+     * @param board the board from which to generate the pseudo-legal captures
+     * @param moves the array in which to write the generated captures
+     * @return the number of pseudo-legal captures written into the array
+     * @see PackedMove
+     */
+    public static int generatePseudoLegalCaptures(Board board, int[] moves) {
+        long mask = board.getBitboard(board.getSideToMove().flip());
+        int count = generatePawnCaptures(board, moves, 0);
+        count = generateKnightMoves(board, moves, count, mask);
+        count = generateBishopMoves(board, moves, count, mask);
+        count = generateRookMoves(board, moves, count, mask);
+        count = generateQueenMoves(board, moves, count, mask);
+        return generateKingMoves(board, moves, count, mask);
+    }
+
     /**
      * Returns the list of all possible legal moves for the position according to the standard rules of chess.
      *
@@ -410,13 +633,193 @@ public class MoveGenerator {
      * @throws MoveGeneratorException if it is not possible to generate the moves
      */
     public static List<Move> generateLegalMoves(Board board) throws MoveGeneratorException {
+        List<Move> moves = new LinkedList<>();
+        int[] buffer = moveBuffer.get();
+        addMoves(moves, buffer, generateLegalMoves(board, buffer));
+        return moves;
+    }
+
+    /**
+     * Generates all possible legal moves for the position according to the standard rules of chess, and writes them as
+     * packed moves into the array passed as an argument, starting at index 0. The array should be at least
+     * {@link MoveGenerator#MAX_MOVES} long.
+     * <p>
+     * Rather than generating all pseudo-legal moves and then verifying each of them, the method computes once the
+     * pieces giving check to the king, the pieces pinned against it, and the squares that would resolve a check, and
+     * emits only the moves compatible with them. Only king moves, castle moves and en passant captures are verified
+     * individually, as they can expose the king to attacks not caught by the masks.
+     *
+     * @param board the board from which to generate the legal moves
+     * @param moves the array in which to write the generated moves
+     * @return the number of legal moves written into the array
+     * @throws MoveGeneratorException if it is not possible to generate the moves
+     * @see PackedMove
+     */
+    public static int generateLegalMoves(Board board, int[] moves) throws MoveGeneratorException {
         try {
-            List<Move> moves = generatePseudoLegalMoves(board);
-            moves.removeIf(move -> !board.isMoveLegal(move, false));
-            return moves;
+            Side side = board.getSideToMove();
+            Square kingSquare = board.getKingSquare(side);
+            if (kingSquare == Square.NONE) {
+                return filterLegalMoves(board, moves, 0, generatePseudoLegalMoves(board, moves));
+            }
+            Side other = side.flip();
+            long us = board.getBitboard(side);
+            int kingIndex = kingSquare.ordinal();
+            long checkers = board.squareAttackedBy(kingSquare, other);
+
+            int count = 0;
+            if (Long.bitCount(checkers) < 2) {
+                // a single check can be resolved capturing the checker or blocking its attack
+                long evasions = checkers == 0L ? ~us :
+                        checkers | Bitboard.getSquaresBetween(kingIndex, bitScanForward(checkers));
+                long pinned = getPinnedPieces(board, side, kingIndex);
+                long mask = evasions & ~us;
+
+                count = generatePawnCaptures(board, moves, count);
+                count = generatePawnMoves(board, moves, count);
+                count = generateKnightMoves(board, moves, count, mask);
+                count = generateBishopMoves(board, moves, count, mask);
+                count = generateRookMoves(board, moves, count, mask);
+                count = generateQueenMoves(board, moves, count, mask);
+                count = filterEvasions(board, moves, count, evasions, pinned, kingIndex);
+            }
+
+            // the king must not move to a square attacked once it has left its own
+            long occ = board.getBitboard() ^ kingSquare.getBitboard();
+            long enemies = board.getBitboard(other);
+            long attacks = Bitboard.getKingAttacks(kingSquare, ~us);
+            while (attacks != 0L) {
+                int targetIndex = bitScanForward(attacks);
+                attacks = extractLsb(attacks);
+                if (board.squareAttackedBy(Square.squareAt(targetIndex), other, occ) == 0L) {
+                    int flags = (enemies & (1L << targetIndex)) != 0L ? PackedMove.CAPTURE : 0;
+                    moves[count++] = PackedMove.encode(kingIndex, targetIndex, Piece.NONE, flags);
+                }
+            }
+
+            if (checkers == 0L) {
+                count = filterLegalMoves(board, moves, count, generateCastleMoves(board, moves, count));
+            }
+            return count;
+        } catch (Exception e) {
+            throw new MoveGeneratorException("Couldn't generate Legal moves: ", e);
+        }
+    }
+
+    /**
+     * Checks whether the side to move has at least one legal move in the position, that is, whether it is neither
+     * checkmated nor stalemated. The method is equivalent to checking that
+     * {@link MoveGenerator#generateLegalMoves(Board, int[])} generates at least one move, but it returns as soon as a
+     * legal move is found, looking first at the moves of the king and then at the moves of the other pieces, a group
+     * of pieces at a time.
+     *
+     * @param board the board to verify
+     * @return {@code true} if the side to move has at least one legal move
+     * @throws MoveGeneratorException if it is not possible to generate the moves
+     */
+    public static boolean hasLegalMoves(Board board) throws MoveGeneratorException {
+        try {
+            int[] moves = moveBuffer.get();
+            Side side = board.getSideToMove();
+            Square kingSquare = board.getKingSquare(side);
+            if (kingSquare == Square.NONE) {
+                return filterLegalMoves(board, moves, 0, generatePseudoLegalMoves(board, moves)) > 0;
+            }
+            Side other = side.flip();
+            long us = board.getBitboard(side);
+            int kingIndex = kingSquare.ordinal();
+
+            // the king must not move to a square attacked once it has left its own
+            long occ = board.getBitboard() ^ kingSquare.getBitboard();
+            long attacks = Bitboard.getKingAttacks(kingSquare, ~us);
+            while (attacks != 0L) {
+                if (board.squareAttackedBy(Square.squareAt(bitScanForward(attacks)), other, occ) == 0L) {
+                    return true;
+                }
+                attacks = extractLsb(attacks);
+            }
+
+            long checkers = board.squareAttackedBy(kingSquare, other);
+            if (Long.bitCount(checkers) > 1) {
+                return false;
+            }
+            long evasions = checkers == 0L ? ~us :
+                    checkers | Bitboard.getSquaresBetween(kingIndex, bitScanForward(checkers));
+            long pinned = getPinnedPieces(board, side, kingIndex);
+            long mask = evasions & ~us;
+            int count = generatePawnCaptures(board, moves, 0);
+            count = generatePawnMoves(board, moves, count);
+            if (filterEvasions(board, moves, count, evasions, pinned, kingIndex) > 0 ||
+                    filterEvasions(board, moves, generateKnightMoves(board, moves, 0, mask),
+                            evasions, pinned, kingIndex) > 0 ||
+                    filterEvasions(board, moves, generateBishopMoves(board, moves, 0, mask),
+                            evasions, pinned, kingIndex) > 0 ||
+                    filterEvasions(board, moves, generateRookMoves(board, moves, 0, mask),
+                            evasions, pinned, kingIndex) > 0 ||
+                    filterEvasions(board, moves, generateQueenMoves(board, moves, 0, mask),
+                            evasions, pinned, kingIndex) > 0) {
+                return true;
+            }
+            return checkers == 0L && filterLegalMoves(board, moves, 0, generateCastleMoves(board, moves, 0)) > 0;
         } catch (Exception e) {
             throw new MoveGeneratorException("Couldn't generate Legal moves: ", e);
         }
     }
 
+    /*
+     * keeps the moves, other than the ones of the king, that resolve a check if any, and that do not move a pinned
+     * piece away from the line of its pin
+     */
+    private static int filterEvasions(Board board, int[] moves, int count, long evasions, long pinned, int kingIndex) {
+        int legal = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int sourceIndex = PackedMove.getFromIndex(move);
+            long target = 1L << PackedMove.getToIndex(move);
+            if (PackedMove.isEnPassant(move)) {
+                if (!board.isMoveLegal(move, false)) {
+                    continue;
+                }
+            } else if ((evasions & target) == 0L || ((pinned >>> sourceIndex) & 1L) != 0L &&
+                    (Bitboard.getSquaresOnLine(kingIndex, sourceIndex) & target) == 0L) {
+                continue;
+            }
+            moves[legal++] = move;
+        }
+        return legal;
+    }
+
+    /*
+     * pieces of the given side that are the only blocker between their own king and an enemy slider
+     */
+    static long getPinnedPieces(Board board, Side side, int kingIndex) {
+        Side other = side.flip();
+        Square kingSquare = Square.squareAt(kingIndex);
+        long occ = board.getBitboard();
+        long queens = board.getBitboard(Piece.make(other, PieceType.QUEEN));
+        long snipers = Bitboard.getRookAttacks(0L, kingSquare) &
+                (board.getBitboard(Piece.make(other, PieceType.ROOK)) | queens);
+        snipers |= Bitboard.getBishopAttacks(0L, kingSquare) &
+                (board.getBitboard(Piece.make(other, PieceType.BISHOP)) | queens);
+        long pinned = 0L;
+        while (snipers != 0L) {
+            long blockers = Bitboard.getSquaresBetween(kingIndex, bitScanForward(snipers)) & occ;
+            snipers = extractLsb(snipers);
+            if (Bitboard.hasOnly1Bit(blockers)) {
+                pinned |= blockers;
+            }
+        }
+        return pinned & board.getBitboard(side);
+    }
+
+    private static int filterLegalMoves(Board board, int[] moves, int from, int to) {
+        int legal = from;
+        for (int i = from; i < to; i++) {
+            if (board.isMoveLegal(moves[i], false)) {
+                moves[legal++] = moves[i];
+            }
+        }
+        return legal;
+    }
+
 }
@@ -16,18 +16,21 @@
 
 package com.github.bhlangonijr.chesslib.move;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
-import com.github.bhlangonijr.chesslib.Bitboard;
 import com.github.bhlangonijr.chesslib.Board;
 import com.github.bhlangonijr.chesslib.Constants;
-import com.github.bhlangonijr.chesslib.File;
-import com.github.bhlangonijr.chesslib.Piece;
-import com.github.bhlangonijr.chesslib.PieceType;
-import com.github.bhlangonijr.chesslib.Rank;
+import com.github.bhlangonijr.chesslib.game.GameContext;
 import com.github.bhlangonijr.chesslib.Side;
 import com.github.bhlangonijr.chesslib.Square;
 import com.github.bhlangonijr.chesslib.util.StringUtil;
@@ -42,19 +45,44 @@ import org.apache.commons.lang3.StringUtils;
  * to validate and disambiguate between moves.
  * <p>
  * This data structure is a {@link List}, thus the standard API of the Java collection is available for this class as
- * well.
+ * well. The moves are backed by an array, hence they can be accessed by index in constant time.
+ * <p>
+ * The SAN and FAN representations of the moves are cached and extended incrementally: the list keeps a board with the
+ * position after the last encoded move, so that appending a move only requires encoding the new move, while removing
+ * or replacing a move only invalidates the representations of the moves that follow it. Changes made through views
+ * of the list returned by {@link MoveList#subList(int, int)} conservatively invalidate the representations of the
+ * moves starting from the beginning of the view.
+ * <p>
+ * To provide random access to the positions of the game, the list stores the compact binary encoding of the position
+ * reached every {@link MoveList#getCheckpointInterval()} moves, so that any position can be rebuilt playing at most as
+ * many moves from the closest checkpoint. Optionally, the FEN representations of the positions can be memoized as
+ * well (see {@link MoveList#setFenCacheEnabled(boolean)}).
  */
-public class MoveList extends LinkedList<Move> implements List<Move> {
+public class MoveList extends ArrayList<Move> implements List<Move> {
 
     private static final long serialVersionUID = -6204280556340150806L;
     private static final ThreadLocal<Board> boardHolder = ThreadLocal.withInitial(Board::new);
     private static final Move nullMove = new Move(Square.NONE, Square.NONE);
 
+    private static final String[] EMPTY_ARRAY = new String[0];
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+
     private final String startFEN;
-    private boolean dirty = true;
 
-    private String[] sanArray;
-    private String[] fanArray;
+    // the SAN and FAN representations of the first encodedSize moves, and the position after them; the SAN of the
+    // following moves is the one provided when adding them, if any
+    private transient String[] sanArray = EMPTY_ARRAY;
+    private transient String[] fanArray = EMPTY_ARRAY;
+    private transient int encodedSize;
+    private transient Board encodedBoard;
+
+    // the encoded positions after 0, n, 2n, ... moves, n being the checkpoint interval, and the memoized FENs per ply
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private boolean fenCacheEnabled;
+    private transient byte[] checkpoints;
+    private transient int checkpointCount;
+    private transient String[] fens;
+    private transient Board positionBoard;
     private int parent;
     private int index;
 
@@ -95,139 +123,6 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         return boardHolder.get();
     }
 
-    /**
-     * Encodes the move to its Short Algebraic Notation (SAN), using the context of the given board.
-     *
-     * @param board the board used as context for encoding the move
-     * @param move  the move to encode
-     * @return the SAN notation of the move
-     * @throws MoveConversionException if the move conversion fails
-     */
-    // encode the move to SAN move and update thread local board
-    private static String encodeToSan(final Board board, Move move) throws MoveConversionException {
-        return encode(board, move, Piece::getSanSymbol);
-    }
-
-    /**
-     * Encodes the move to its Figurine Algebraic Notation (FAN), using the context of the given board.
-     *
-     * @param board the board used as context for encoding the move
-     * @param move  the move to encode
-     * @return the FAN notation of the move
-     * @throws MoveConversionException if the move conversion fails
-     */
-    // encode the move to FAN move and update thread local board
-    private static String encodeToFan(final Board board, Move move) throws MoveConversionException {
-        return encode(board, move, Piece::getFanSymbol);
-    }
-
-    /**
-     * Encodes the move using a conversion function and the given board as context.
-     *
-     * @param board    the board used as context for encoding the move
-     * @param move     the move to encode
-     * @param notation the conversion function to transform the move to its string representation
-     * @return the notation of the move
-     * @throws MoveConversionException if the move conversion fails
-     */
-    // encode the move to SAN/FAN move and update thread local board
-    private static String encode(final Board board, Move move, Function<Piece, String> notation)
-            throws MoveConversionException {
-        StringBuilder san = new StringBuilder();
-        Piece piece = board.getPiece(move.getFrom());
-        if (piece.getPieceType().equals(PieceType.KING)) {
-            int delta = move.getTo().getFile().ordinal() -
-                    move.getFrom().getFile().ordinal();
-            if (Math.abs(delta) >= 2) { // is castle
-                if (!board.doMove(move, true)) {
-                    throw new MoveConversionException("Invalid move [" +
-                            move + "] for current setup: " + board.getFen());
-                }
-                san.append(delta > 0 ? "O-O" : "O-O-O");
-                addCheckFlag(board, san);
-                return san.toString();
-            }
-        }
-        boolean pawnMove = piece.getPieceType().equals(PieceType.PAWN) &&
-                move.getFrom().getFile().equals(move.getTo().getFile());
-        boolean ambResolved = false;
-        san.append(notation.apply(piece));
-        if (!pawnMove) {
-            //resolving ambiguous move
-            long amb = board.squareAttackedByPieceType(move.getTo(),
-                    board.getSideToMove(), piece.getPieceType());
-            amb &= ~move.getFrom().getBitboard();
-            if (amb != 0L) {
-                List<Square> fromList = Bitboard.bbToSquareList(amb);
-                for (Square from : fromList) {
-                    if (!board.isMoveLegal(new Move(from, move.getTo()), false)) {
-                        amb ^= from.getBitboard();
-                    }
-                }
-            }
-            if (amb != 0L) {
-                if ((Bitboard.getFilebb(move.getFrom()) & amb) == 0L) {
-                    san.append(move.getFrom().getFile().getNotation().toLowerCase());
-                } else if ((Bitboard.getRankbb(move.getFrom()) & amb) == 0L) {
-                    san.append(move.getFrom().getRank().getNotation().toLowerCase());
-                } else {
-                    san.append(move.getFrom().toString().toLowerCase());
-                }
-                ambResolved = true;
-            }
-        }
-
-        if (!board.doMove(move, true)) {
-            throw new MoveConversionException("Invalid move [" +
-                    move + "] for current setup: " + board.getFen());
-        }
-
-
-        Piece captured = board.getBackup().getLast().getCapturedPiece();
-        boolean isCapture = !captured.equals(Piece.NONE);
-        if (isCapture) {
-            if (!ambResolved &&
-                    piece.getPieceType().equals(PieceType.PAWN)) {
-                san.append(move.getFrom().getFile().getNotation().toLowerCase());
-            }
-            san.append("x");
-        }
-        san.append(move.getTo().toString().toLowerCase());
-        if (!move.getPromotion().equals(Piece.NONE)) {
-            san.append("=");
-            san.append(notation.apply(move.getPromotion()));
-        }
-        addCheckFlag(board, san);
-        return san.toString();
-    }
-
-    private static void addCheckFlag(Board board, StringBuilder san) {
-
-        if (board.isKingAttacked()) {
-            if (board.isMated()) {
-                san.append("#");
-            } else {
-                san.append("+");
-            }
-        }
-    }
-
-    private static long findLegalSquares(Board board, Square to, Piece promotion, long pieces) {
-        long result = 0L;
-
-        if (pieces != 0L) {
-            for (Square sqSource : Bitboard.bbToSquareList(pieces)) {
-                Move move = new Move(sqSource, to, promotion);
-                if (board.isMoveLegal(move, true)) {
-                    result |= sqSource.getBitboard();
-                    break;
-                }
-            }
-        }
-
-        return result;
-    }
-
     /**
      * Creates a new instance using an existing list of moves. The new instance will use the initial position of the
      * existing list as a base.
@@ -241,27 +136,14 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException if the starting list of moves is invalid
      */
     public static MoveList createMoveListFrom(MoveList startMoves, int finalIndex) throws MoveConversionException {
-        String fen = null;
         final Board b = getBoard();
-        if (!b.getFen().equals(startMoves.getStartFen())) {
+        if (startMoves.isEmpty()) {
             b.loadFromFen(startMoves.getStartFen());
+        } else {
+            int ply = Math.min(Math.max(finalIndex, 1), startMoves.size());
+            startMoves.replay(b, ply, ply, false);
         }
-        int i = 0;
-        for (Move move : startMoves) {
-            i++;
-            if (!b.doMove(move, false)) {
-                throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
-                        move + " [" + move.toString() + "] on " + b.getFen());
-            }
-            if (i >= finalIndex) {
-                fen = b.getFen();
-                break;
-            }
-        }
-        if (fen == null) {
-            fen = b.getFen();
-        }
-        return new MoveList(fen);
+        return new MoveList(b.getFen());
     }
 
     /**
@@ -284,60 +166,165 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
 
     @Override
     public void add(int index, Move move) {
-        dirty = true;
+        invalidateFrom(index);
         super.add(index, move);
     }
 
     @Override
-    public boolean add(Move move) {
-        dirty = true;
-        return super.add(move);
-    }
-
-    @Override
-    public boolean addAll(Collection<? extends Move> moves) {
-        dirty = true;
-        return super.addAll(moves);
+    public boolean addAll(int index, Collection<? extends Move> moves) {
+        invalidateFrom(index);
+        return super.addAll(index, moves);
     }
 
     @Override
-    public boolean addAll(int index, Collection<? extends Move> moves) {
-        dirty = true;
-        return super.addAll(index, moves);
+    public Move set(int index, Move move) {
+        invalidateFrom(index);
+        return super.set(index, move);
     }
 
     @Override
     public Move removeFirst() {
-        dirty = true;
+        invalidateFrom(0);
         return super.removeFirst();
     }
 
     @Override
     public Move removeLast() {
-        dirty = true;
+        invalidateFrom(size() - 1);
         return super.removeLast();
     }
 
     @Override
     public boolean remove(Object o) {
-        dirty = true;
-        return super.remove(o);
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
     }
 
     @Override
     public Move remove(int index) {
-        dirty = true;
+        invalidateFrom(index);
         return super.remove(index);
     }
 
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        invalidateFrom(fromIndex);
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        invalidateFrom(0);
+        return super.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        invalidateFrom(0);
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Move> filter) {
+        invalidateFrom(0);
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Move> operator) {
+        invalidateFrom(0);
+        super.replaceAll(operator);
+    }
+
+    @Override
+    public void sort(Comparator<? super Move> c) {
+        invalidateFrom(0);
+        super.sort(c);
+    }
+
+    @Override
+    public List<Move> subList(int fromIndex, int toIndex) {
+        // the view can modify the list without notice
+        invalidateFrom(fromIndex);
+        return super.subList(fromIndex, toIndex);
+    }
+
     @Override
     public void clear() {
-        dirty = true;
-        sanArray = null;
-        fanArray = null;
+        invalidateFrom(0);
         super.clear();
     }
 
+    /**
+     * Returns a shallow copy of this list. The copy does not share the cached representations of the moves with this
+     * list.
+     *
+     * @return a copy of this list
+     */
+    @Override
+    public Object clone() {
+        MoveList copy = (MoveList) super.clone();
+        copy.resetCache();
+        return copy;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        resetCache();
+    }
+
+    private void resetCache() {
+        sanArray = EMPTY_ARRAY;
+        fanArray = EMPTY_ARRAY;
+        encodedSize = 0;
+        encodedBoard = null;
+        checkpoints = null;
+        checkpointCount = 0;
+        fens = null;
+        positionBoard = null;
+    }
+
+    /*
+     * discards the cached notations of the moves starting from the given index, and the cached positions reached after
+     * playing them
+     */
+    private void invalidateFrom(int index) {
+        int from = Math.max(index, 0);
+        checkpointCount = Math.min(checkpointCount, from / checkpointInterval + 1);
+        if (fens != null && from < fens.length - 1) {
+            Arrays.fill(fens, from + 1, fens.length, null);
+        }
+        int end = Math.min(size(), sanArray.length);
+        if (from < end) {
+            Arrays.fill(sanArray, from, end, null);
+            Arrays.fill(fanArray, from, end, null);
+        }
+        if (from >= encodedSize) {
+            return;
+        }
+        if (from == 0) {
+            encodedBoard = null;
+        } else {
+            while (encodedSize > from) {
+                encodedBoard.undoMove();
+                encodedSize--;
+            }
+        }
+        encodedSize = from;
+    }
+
+    private void ensureArraysCapacity(int size) {
+        if (sanArray.length < size) {
+            int capacity = Math.max(size, 2 * sanArray.length);
+            sanArray = Arrays.copyOf(sanArray, capacity);
+            fanArray = Arrays.copyOf(fanArray, capacity);
+        }
+    }
+
     /**
      * Converts the list of moves into a Short Algebraic Notation (SAN) representation that does not include move
      * numbers, for example {@code "e4 e5 Nf3 Bc5"}.
@@ -413,12 +400,22 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException in case a conversion error occurs during the process
      */
     public String[] toSanArray() throws MoveConversionException {
-        if (!dirty && sanArray != null) {
-            return sanArray;
-        }
-        updateSanArray();
-        updateFanArray();
-        return sanArray;
+        updateArrays();
+        return Arrays.copyOf(sanArray, size());
+    }
+
+    /**
+     * Returns the Short Algebraic Notation (SAN) of the move at the given index, without converting the list. That is
+     * the SAN provided when the move was added through {@link MoveList#addSanMove(String, boolean, boolean)}, or the
+     * one computed by a previous conversion of the list, such as {@link MoveList#toSanArray()}.
+     *
+     * @param index the index of the move in the list
+     * @return the SAN representation of the move, or null if not available
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getSan(int index) {
+        Objects.checkIndex(index, size());
+        return index < sanArray.length ? sanArray[index] : null;
     }
 
     /**
@@ -428,38 +425,28 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * @throws MoveConversionException in case a conversion error occurs during the process
      */
     public String[] toFanArray() throws MoveConversionException {
-        if (!dirty && fanArray != null) {
-            return fanArray;
-        }
-        updateSanArray();
-        updateFanArray();
-        return fanArray;
+        updateArrays();
+        return Arrays.copyOf(fanArray, size());
     }
 
-    private void updateSanArray() throws MoveConversionException {
-        sanArray = new String[this.size()];
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
+    /*
+     * encodes the moves following the ones already encoded, starting from the position reached after them
+     */
+    private void updateArrays() throws MoveConversionException {
+        final int size = size();
+        if (encodedSize == size) {
+            return;
         }
-        int i = 0;
-        for (Move move : this) {
-            sanArray[i++] = encodeToSan(b, move);
+        if (encodedBoard == null) {
+            encodedBoard = new Board(new GameContext(), false, false);
+            encodedBoard.loadFromFen(getStartFen());
+            encodedSize = 0;
         }
-        dirty = false;
-    }
-
-    private void updateFanArray() throws MoveConversionException {
-        fanArray = new String[this.size()];
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
-        }
-        int i = 0;
-        for (Move move : this) {
-            fanArray[i++] = encodeToFan(b, move);
+        ensureArraysCapacity(size);
+        for (int i = encodedSize; i < size; i++) {
+            SanCodec.encode(encodedBoard, get(i), sanArray, fanArray, i);
+            encodedSize = i + 1;
         }
-        dirty = false;
     }
 
     /**
@@ -489,7 +476,7 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
             String[] m = text.split(StringUtils.SPACE);
             int i = 0;
             for (String strMove : m) {
-                Move move = new Move(strMove, side);
+                Move move = Move.valueOf(strMove, side);
                 add(i++, move);
                 side = side.flip();
             }
@@ -540,12 +527,15 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         if (move == nullMove) {
             return;
         }
-        move.setSan(san);
         if (!b.doMove(move, fullValidation)) {
             throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
                     move + " [" + san + "] on " + b.getFen());
         }
-        add(this.size(), move);
+        final int index = size();
+        add(index, move);
+        // shared moves are immutable, the SAN is kept by the list until the moves are encoded
+        ensureArraysCapacity(index + 1);
+        sanArray[index] = san;
     }
 
     /**
@@ -597,127 +587,10 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      */
     // decode SAN to move
     protected Move decodeSan(Board board, String san, Side side) throws MoveConversionException {
-
         if (san.equalsIgnoreCase("Z0")) {
             return nullMove;
         }
-        san = normalizeSan(san);
-
-        String strPromotion = StringUtil.afterSequence(san, "=", 1);
-        san = StringUtil.beforeSequence(san, "=");
-
-        char lastChar = san.charAt(san.length() - 1);
-        //FIX missing equal sign for pawn promotions
-        if (Character.isLetter(lastChar) && Character.toUpperCase(lastChar) != 'O') {
-            san = san.substring(0, san.length() - 1);
-            strPromotion = String.valueOf(lastChar);
-        }
-
-        if (san.equals("O-O") || san.equals("O-O-O")) { // is castle
-            if (san.equals("O-O")) {
-                return board.getContext().getoo(side);
-            } else {
-                return board.getContext().getooo(side);
-            }
-        }
-
-        if (san.length() == 3 &&
-                Character.isUpperCase(san.charAt(2))) {
-            strPromotion = san.substring(2, 3);
-            san = san.substring(0, 2);
-        }
-
-        Square from = Square.NONE;
-        Square to;
-        try {
-            to = Square.valueOf(StringUtil.lastSequence(san.toUpperCase(), 2));
-        } catch (Exception e) {
-            throw new MoveConversionException("Couldn't parse destination square[" + san + "]: " +
-                    san.toUpperCase());
-        }
-        Piece promotion = StringUtils.isEmpty(strPromotion) ? Piece.NONE :
-                Piece.fromFenSymbol(side.equals(Side.WHITE) ? strPromotion.toUpperCase() : strPromotion.toLowerCase());
-
-        if (san.length() == 2) { //is pawn move
-            long mask = Bitboard.getBbtable(to) - 1L;
-            long xfrom = (side.equals(Side.WHITE) ? mask : ~mask) & Bitboard.getFilebb(to) &
-                    board.getBitboard(Piece.make(side, PieceType.PAWN));
-            int f = side.equals(Side.BLACK) ? Bitboard.bitScanForward(xfrom) :
-                    Bitboard.bitScanReverse(xfrom);
-            if (f >= 0 && f <= 63) {
-                from = Square.squareAt(f);
-            }
-        } else {
-
-            String strFrom = (san.contains("x") ?
-                    StringUtil.beforeSequence(san, "x") :
-                    san.substring(0, san.length() - 2));
-
-            if (strFrom == null ||
-                    strFrom.length() == 0 || strFrom.length() > 3) {
-                throw new MoveConversionException("Couldn't parse 'from' square " + san + ": Too many/few characters.");
-            }
-
-            PieceType fromPiece = PieceType.PAWN;
-
-            if (Character.isUpperCase(strFrom.charAt(0))) {
-                fromPiece = PieceType.fromSanSymbol(String.valueOf(strFrom.charAt(0)));
-            }
-
-            if (strFrom.length() == 3) {
-                from = Square.valueOf(strFrom.substring(1, 3).toUpperCase());
-            } else {
-                String location = StringUtils.EMPTY;
-                if (strFrom.length() == 2) {
-                    if (Character.isUpperCase(strFrom.charAt(0))) {
-                        location = strFrom.substring(1, 2);
-                    } else {
-                        location = strFrom.substring(0, 2);
-                        from = Square.valueOf(location.toUpperCase());
-                    }
-                } else {
-                    if (Character.isLowerCase(strFrom.charAt(0))) {
-                        location = strFrom;
-                    }
-                }
-                if (location.length() < 2) {
-                    //resolving ambiguous from
-                    long xfrom = board.squareAttackedByPieceType(to,
-                            board.getSideToMove(), fromPiece);
-                    if (location.length() > 0) {
-                        if (Character.isDigit(location.charAt(0))) {
-                            int irank = Integer.parseInt(location);
-                            if (!(irank >= 1 && irank <= 8)) {
-                                throw new MoveConversionException("Couldn't parse rank: " + location);
-                            }
-                            Rank rank = Rank.allRanks[irank - 1];
-                            xfrom &= Bitboard.getRankbb(rank);
-                        } else {
-                            try {
-                                File file = File.valueOf("FILE_" + location.toUpperCase());
-                                xfrom &= Bitboard.getFilebb(file);
-                            } catch (Exception e) {
-                                throw new MoveConversionException("Couldn't parse file: " + location);
-                            }
-                        }
-                    }
-                    if (xfrom != 0L) {
-                        if (!Bitboard.hasOnly1Bit(xfrom)) {
-                            xfrom = findLegalSquares(board, to, promotion, xfrom);
-                        }
-                        int f = Bitboard.bitScanForward(xfrom);
-                        if (f >= 0 && f <= 63) {
-                            from = Square.squareAt(f);
-                        }
-                    }
-                }
-            }
-
-        }
-        if (from.equals(Square.NONE)) {
-            throw new MoveConversionException("Couldn't parse 'from' square " + san + " to setup: " + board.getFen());
-        }
-        return new Move(from, to, promotion);
+        return SanCodec.decode(board, san, side);
     }
 
     /**
@@ -746,22 +619,30 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
      * position
      */
     public String getFen(int atMoveIndex, boolean includeCounters) {
-        final Board b = getBoard();
-        if (!b.getFen().equals(getStartFen())) {
-            b.loadFromFen(getStartFen());
+        if (isEmpty() || atMoveIndex > size()) {
+            return null;
         }
-        int i = 0;
-        for (Move move : this) {
-            i++;
-            if (!b.doMove(move, false)) {
-                throw new IllegalArgumentException("Couldn't parse SAN to MoveList: Illegal move: " +
-                        move + " [" + move.toString() + "] on " + b.getFen(includeCounters));
+        final int ply = Math.max(atMoveIndex, 1);
+        String fen = fens != null && ply < fens.length ? fens[ply] : null;
+        if (fen == null) {
+            if (positionBoard == null) {
+                positionBoard = new Board(new GameContext(), false, false);
+            }
+            try {
+                replay(positionBoard, ply, ply, false);
+            } catch (MoveConversionException e) {
+                throw new IllegalArgumentException(e.getMessage());
             }
-            if (i >= atMoveIndex) {
-                return b.getFen(includeCounters);
+            fen = positionBoard.getFen(true);
+            if (fenCacheEnabled) {
+                if (fens == null || fens.length <= size()) {
+                    fens = fens == null ? new String[size() + 1] : Arrays.copyOf(fens, 2 * size() + 1);
+                }
+                fens[ply] = fen;
             }
         }
-        return null;
+        // the counters are the last two fields of the FEN
+        return includeCounters ? fen : fen.substring(0, fen.lastIndexOf(' ', fen.lastIndexOf(' ') - 1));
     }
 
     /**
@@ -777,6 +658,119 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         return getFen(this.size());
     }
 
+    /**
+     * Loads into a board the position reached after the first {@code atMoveIndex} moves of this list are executed
+     * from the base initial position. The position is rebuilt starting from the closest checkpoint, and the moves are
+     * played with a full validation.
+     * <p>
+     * The history of the board covers at least the moves played since the last capture or pawn move, so that
+     * repetitions are detected as if the whole list was replayed on the board.
+     *
+     * @param board       the board to load the position into
+     * @param atMoveIndex the number of moves to execute, between zero (the initial position) and the size of the list
+     * @throws MoveConversionException   if a move is illegal for the position
+     * @throws IndexOutOfBoundsException if the index is outside the boundaries of the list
+     */
+    public void loadPosition(Board board, int atMoveIndex) throws MoveConversionException {
+        if (atMoveIndex < 0 || atMoveIndex > size()) {
+            throw new IndexOutOfBoundsException("Invalid move index " + atMoveIndex);
+        }
+        int start = replay(board, atMoveIndex, atMoveIndex, true);
+        // positions before the last capture or pawn move can not be repeated
+        int irreversible = Math.max(atMoveIndex - board.getHalfMoveCounter(), 0);
+        if (irreversible < start) {
+            replay(board, atMoveIndex, irreversible, true);
+        }
+    }
+
+    /*
+     * loads the board from the last checkpoint not after the given limit and plays the moves until the wanted index,
+     * storing the checkpoints found on the way. Returns the index of the checkpoint used
+     */
+    private int replay(Board board, int atMoveIndex, int limit, boolean fullValidation)
+            throws MoveConversionException {
+        final int interval = checkpointInterval;
+        if (checkpoints == null || checkpointCount == 0) {
+            board.loadFromFen(getStartFen());
+            checkpointCount = 0;
+            storeCheckpoint(board);
+        }
+        int checkpoint = Math.min(limit / interval, checkpointCount - 1);
+        board.loadFromBinary(ByteBuffer.wrap(checkpoints, checkpoint * Board.ENCODED_POSITION_LENGTH,
+                Board.ENCODED_POSITION_LENGTH));
+        for (int i = checkpoint * interval; i < atMoveIndex; i++) {
+            Move move = get(i);
+            if (!board.doMove(move, fullValidation)) {
+                throw new MoveConversionException("Couldn't parse SAN to MoveList: Illegal move: " +
+                        move + " [" + move.toString() + "] on " + board.getFen());
+            }
+            if ((i + 1) == checkpointCount * interval) {
+                storeCheckpoint(board);
+            }
+        }
+        return checkpoint * interval;
+    }
+
+    private void storeCheckpoint(Board board) {
+        int offset = checkpointCount * Board.ENCODED_POSITION_LENGTH;
+        if (checkpoints == null) {
+            checkpoints = new byte[Board.ENCODED_POSITION_LENGTH * (size() / checkpointInterval + 1)];
+        } else if (checkpoints.length < offset + Board.ENCODED_POSITION_LENGTH) {
+            checkpoints = Arrays.copyOf(checkpoints, 2 * (offset + Board.ENCODED_POSITION_LENGTH));
+        }
+        board.writeBinary(ByteBuffer.wrap(checkpoints, offset, Board.ENCODED_POSITION_LENGTH));
+        checkpointCount++;
+    }
+
+    /**
+     * Returns the number of moves between two consecutive checkpoints, that is, the maximum number of moves played to
+     * rebuild a position of the list. The default interval is 16 moves.
+     *
+     * @return the number of moves between two checkpoints
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Sets the number of moves between two consecutive checkpoints. Shorter intervals make the positions faster to
+     * rebuild, at the cost of {@link Board#ENCODED_POSITION_LENGTH} bytes of memory for each checkpoint.
+     *
+     * @param checkpointInterval the number of moves between two checkpoints
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be positive");
+        }
+        this.checkpointInterval = checkpointInterval;
+        checkpointCount = 0;
+    }
+
+    /**
+     * Checks whether the FEN representations of the positions returned by {@link MoveList#getFen(int, boolean)} are
+     * memoized. The memoization is disabled by default.
+     *
+     * @return {@code true} if the FEN representations are memoized
+     */
+    public boolean isFenCacheEnabled() {
+        return fenCacheEnabled;
+    }
+
+    /**
+     * Enables or disables the memoization of the FEN representations of the positions returned by
+     * {@link MoveList#getFen(int, boolean)}. Memoized representations are discarded when the moves they depend on are
+     * changed.
+     *
+     * @param fenCacheEnabled whether to memoize the FEN representations
+     */
+    public void setFenCacheEnabled(boolean fenCacheEnabled) {
+        this.fenCacheEnabled = fenCacheEnabled;
+        if (!fenCacheEnabled) {
+            fens = null;
+        }
+    }
+
     /**
      * Returns the parent index of the list of moves.
      *
@@ -845,13 +839,4 @@ public class MoveList extends LinkedList<Move> implements List<Move> {
         }
         return false;
     }
-
-    private String normalizeSan(String san) { //TODO regex?
-        return san.replace("+", StringUtils.EMPTY)
-                .replace("#", StringUtils.EMPTY)
-                .replace("!", StringUtils.EMPTY)
-                .replace("?", StringUtils.EMPTY)
-                .replace("ep", StringUtils.EMPTY)
-                .replace("\n", StringUtils.SPACE);
-    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Square;
+
+/**
+ * A collection of static utility methods to handle moves packed into primitive {@code int} values. Packed moves are
+ * the allocation-free counterpart of {@link Move} instances, and they are the format used by the array-based methods
+ * of {@link MoveGenerator} to fill caller-supplied move buffers.
+ * <p>
+ * The layout of a packed move is the following:
+ * <ul>
+ *     <li>bits 0-5: the index of the origin square;</li>
+ *     <li>bits 6-11: the index of the destination square;</li>
+ *     <li>bits 12-15: the ordinal of the promotion piece, {@link Piece#NONE} if the move is not a promotion;</li>
+ *     <li>bits 16-19: the move flags (capture, en passant, castle and pawn double push).</li>
+ * </ul>
+ * The flags are informative only: two packed moves are considered the same move when their origin, destination and
+ * promotion piece are the same, as for {@link Move#equals(Object)}.
+ */
+public final class PackedMove {
+
+    /**
+     * Special value that represents no move in particular.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Flag set when the move captures an enemy piece, including en passant captures.
+     */
+    public static final int CAPTURE = 1 << 16;
+    /**
+     * Flag set when the move is an en passant capture.
+     */
+    public static final int EN_PASSANT = 1 << 17;
+    /**
+     * Flag set when the move is a castle move.
+     */
+    public static final int CASTLE = 1 << 18;
+    /**
+     * Flag set when the move is a pawn moving two squares forward.
+     */
+    public static final int DOUBLE_PUSH = 1 << 19;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0xF;
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int NO_PROMOTION = Piece.NONE.ordinal() << PROMOTION_SHIFT;
+
+    private PackedMove() {
+    }
+
+    /**
+     * Packs a move defined by the indexes of its origin and destination squares, its promotion piece and its flags.
+     *
+     * @param from      the index of the origin square
+     * @param to        the index of the destination square
+     * @param promotion the promotion piece, or {@link Piece#NONE} if the move is not a promotion
+     * @param flags     the flags of the move, a combination of {@link PackedMove#CAPTURE},
+     *                  {@link PackedMove#EN_PASSANT}, {@link PackedMove#CASTLE} and {@link PackedMove#DOUBLE_PUSH}
+     * @return the packed move
+     */
+    public static int encode(int from, int to, Piece promotion, int flags) {
+        return from | (to << TO_SHIFT) | (promotion.ordinal() << PROMOTION_SHIFT) | flags;
+    }
+
+    /**
+     * Packs a quiet move, without promotion nor flags, defined by the indexes of its origin and destination squares.
+     *
+     * @param from the index of the origin square
+     * @param to   the index of the destination square
+     * @return the packed move
+     */
+    public static int encode(int from, int to) {
+        return from | (to << TO_SHIFT) | NO_PROMOTION;
+    }
+
+    /**
+     * Packs a move defined by its origin and destination squares, and its promotion piece. No flag is set.
+     *
+     * @param from      the origin square
+     * @param to        the destination square
+     * @param promotion the promotion piece, or {@link Piece#NONE} if the move is not a promotion
+     * @return the packed move
+     */
+    public static int encode(Square from, Square to, Piece promotion) {
+        return encode(from.ordinal(), to.ordinal(), promotion, 0);
+    }
+
+    /**
+     * Packs a {@link Move} instance. No flag is set.
+     *
+     * @param move the move to pack
+     * @return the packed move
+     */
+    public static int fromMove(Move move) {
+        return encode(move.getFrom(), move.getTo(), move.getPromotion());
+    }
+
+    /**
+     * Unpacks a move into a {@link Move} instance. The flags of the packed move are discarded. The shared instance of
+     * the move is returned, so that no allocation is performed for the moves that can be legal.
+     *
+     * @param move the packed move
+     * @return the unpacked move
+     * @see Move#valueOf(Square, Square, Piece)
+     */
+    public static Move toMove(int move) {
+        return Move.valueOf(getFrom(move), getTo(move), getPromotion(move));
+    }
+
+    /**
+     * Returns the index of the origin square of a packed move.
+     *
+     * @param move the packed move
+     * @return the index of the origin square
+     */
+    public static int getFromIndex(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * Returns the index of the destination square of a packed move.
+     *
+     * @param move the packed move
+     * @return the index of the destination square
+     */
+    public static int getToIndex(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * Returns the origin square of a packed move.
+     *
+     * @param move the packed move
+     * @return the origin square
+     */
+    public static Square getFrom(int move) {
+        return Square.squareAt(getFromIndex(move));
+    }
+
+    /**
+     * Returns the destination square of a packed move.
+     *
+     * @param move the packed move
+     * @return the destination square
+     */
+    public static Square getTo(int move) {
+        return Square.squareAt(getToIndex(move));
+    }
+
+    /**
+     * Returns the promotion piece of a packed move.
+     *
+     * @param move the packed move
+     * @return the promotion piece, or {@link Piece#NONE} if the move is not a promotion
+     */
+    public static Piece getPromotion(int move) {
+        return Piece.allPieces[(move >>> PROMOTION_SHIFT) & PIECE_MASK];
+    }
+
+    /**
+     * Checks if a packed move is a promotion.
+     *
+     * @param move the packed move
+     * @return {@code true} if the move is a promotion
+     */
+    public static boolean isPromotion(int move) {
+        return (move & (PIECE_MASK << PROMOTION_SHIFT)) != NO_PROMOTION;
+    }
+
+    /**
+     * Checks if the capture flag is set in a packed move.
+     *
+     * @param move the packed move
+     * @return {@code true} if the move is a capture
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Checks if the en passant flag is set in a packed move.
+     *
+     * @param move the packed move
+     * @return {@code true} if the move is an en passant capture
+     */
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * Checks if the castle flag is set in a packed move.
+     *
+     * @param move the packed move
+     * @return {@code true} if the move is a castle move
+     */
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Checks if the pawn double push flag is set in a packed move.
+     *
+     * @param move the packed move
+     * @return {@code true} if the move is a pawn moving two squares forward
+     */
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * Checks if two packed moves represent the same move, that is, if they have the same origin and destination
+     * squares and the same promotion piece. Flags are ignored.
+     *
+     * @param move  the first packed move
+     * @param other the second packed move
+     * @return {@code true} if the two packed moves represent the same move
+     */
+    public static boolean sameMove(int move, int other) {
+        return (move & MOVE_MASK) == (other & MOVE_MASK);
+    }
+
+    /**
+     * Returns a string representation of a packed move, in the same format of {@link Move#toString()}.
+     *
+     * @param move the packed move
+     * @return a string representation of the packed move
+     */
+    public static String toString(int move) {
+        return toMove(move).toString();
+    }
+}
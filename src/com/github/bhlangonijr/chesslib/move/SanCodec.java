@@ -0,0 +1,309 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.move;
+
+import com.github.bhlangonijr.chesslib.Bitboard;
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.PieceType;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.Square;
+
+/**
+ * The encoder and decoder of moves in Short Algebraic Notation (SAN) used by {@link MoveList}. A move is decoded
+ * lexing its notation in a single pass, mapping the moving piece, the hints about its origin and the destination square
+ * directly to bitboards: the origin square is then found with a lookup of the attacks to the destination square,
+ * checking the safety of the king only when the notation is ambiguous.
+ * <p>
+ * The decoder is lenient, as it ignores check and mate flags, annotations such as {@code !} or {@code ?}, the en
+ * passant suffix {@code ep} and the equal sign of promotions, that can be omitted.
+ * <p>
+ * A move is encoded in SAN and in Figurine Algebraic Notation (FAN) at the same time, as the two notations differ only
+ * in the symbols of the pieces. Ambiguities are resolved using the mask of the pieces pinned to their king, and a
+ * checkmate is detected by looking for any legal reply, without generating all of them.
+ */
+final class SanCodec {
+
+    // the longest notation, without the ignored characters, such as "Qh4xe1"
+    private static final int MAX_LENGTH = 8;
+    private static final int NONE = -1;
+    private static final char[] FILES = {'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h'};
+    private static final char[] RANKS = {'1', '2', '3', '4', '5', '6', '7', '8'};
+
+    private SanCodec() {
+    }
+
+    /**
+     * Decodes a move from its Short Algebraic Notation (SAN), using the given board and side as context. The side is
+     * used to resolve castle moves, pawn pushes and the color of the promotion piece, while the origin of the other
+     * moves is searched among the pieces of the side to move of the board.
+     * <p>
+     * When the notation alone does not identify the moving piece, the first piece that can legally reach the
+     * destination square is chosen. The legality of the decoded move is not verified otherwise.
+     *
+     * @param board the board in which the move is played
+     * @param san   the SAN representation of the move
+     * @param side  the side executing the move
+     * @return the decoded move
+     * @throws MoveConversionException if the notation is malformed or it does not match any piece of the position
+     */
+    static Move decode(Board board, String san, Side side) throws MoveConversionException {
+        final char[] token = new char[MAX_LENGTH];
+        int length = 0;
+        for (int i = 0; i < san.length(); i++) {
+            char c = san.charAt(i);
+            if (c == '+' || c == '#' || c == '!' || c == '?' || c == '=' || Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c == 'e' && i + 1 < san.length() && san.charAt(i + 1) == 'p') {
+                i++;
+                continue;
+            }
+            if (length == MAX_LENGTH) {
+                throw new MoveConversionException("Couldn't parse SAN move " + san + ": Too many characters.");
+            }
+            token[length++] = c;
+        }
+
+        if (isCastle(token, length, 3)) {
+            return board.getContext().getoo(side);
+        }
+        if (isCastle(token, length, 5)) {
+            return board.getContext().getooo(side);
+        }
+
+        int end = length;
+        Piece promotion = Piece.NONE;
+        if (end > 0 && Character.isLetter(token[end - 1])) {
+            promotion = promotionPiece(token[end - 1], side, san);
+            end--;
+        }
+        if (end < 2) {
+            throw new MoveConversionException("Couldn't parse destination square[" + san + "]");
+        }
+        final int toFile = Character.toLowerCase(token[end - 2]) - 'a';
+        final int toRank = token[end - 1] - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            throw new MoveConversionException("Couldn't parse destination square[" + san + "]");
+        }
+        final Square to = Square.squareAt(toRank * 8 + toFile);
+        end -= 2;
+
+        PieceType type = PieceType.PAWN;
+        int i = 0;
+        if (end > 0 && Character.isUpperCase(token[0])) {
+            type = pieceType(token[0], san);
+            i++;
+        }
+        int fromFile = NONE;
+        int fromRank = NONE;
+        boolean capture = false;
+        for (; i < end; i++) {
+            char c = token[i];
+            if (c >= 'a' && c <= 'h' && fromFile == NONE && fromRank == NONE && !capture) {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8' && fromRank == NONE && !capture) {
+                fromRank = c - '1';
+            } else if (c == 'x' && !capture) {
+                capture = true;
+            } else {
+                throw new MoveConversionException("Couldn't parse 'from' square " + san + ": Unexpected character.");
+            }
+        }
+
+        Square from = Square.NONE;
+        if (fromFile != NONE && fromRank != NONE) {
+            from = Square.squareAt(fromRank * 8 + fromFile);
+        } else if (type == PieceType.PAWN && fromFile == NONE && fromRank == NONE && !capture) {
+            // the pawn pushed is the closest one behind the destination square
+            long mask = to.getBitboard() - 1L;
+            long pawns = (side == Side.WHITE ? mask : ~mask) & Bitboard.getFilebb(to) &
+                    board.getBitboard(Piece.make(side, PieceType.PAWN));
+            if (pawns != 0L) {
+                from = Square.squareAt(side == Side.WHITE ?
+                        63 - Long.numberOfLeadingZeros(pawns) : Long.numberOfTrailingZeros(pawns));
+            }
+        } else {
+            long candidates = board.squareAttackedByPieceType(to, board.getSideToMove(), type);
+            if (fromFile != NONE) {
+                candidates &= Bitboard.getFilebb(Square.squareAt(fromFile));
+            }
+            if (fromRank != NONE) {
+                candidates &= Bitboard.getRankbb(Square.squareAt(fromRank * 8));
+            }
+            if (Long.bitCount(candidates) > 1) {
+                // the notation is ambiguous without the pieces that cannot move, such as the pinned ones
+                for (long c = candidates; c != 0L; c &= c - 1) {
+                    int index = Long.numberOfTrailingZeros(c);
+                    if (board.isMoveLegal(PackedMove.encode(index, to.ordinal(), promotion, 0), false)) {
+                        from = Square.squareAt(index);
+                        break;
+                    }
+                }
+            } else if (candidates != 0L) {
+                from = Square.squareAt(Long.numberOfTrailingZeros(candidates));
+            }
+        }
+        if (from == Square.NONE) {
+            throw new MoveConversionException("Couldn't parse 'from' square " + san + " to setup: " + board.getFen());
+        }
+        return Move.valueOf(from, to, promotion);
+    }
+
+    /**
+     * Encodes a move to its Short Algebraic Notation (SAN) and Figurine Algebraic Notation (FAN), using the context of
+     * the given board, and executes it on the board. The two representations are stored at the given index of the
+     * arrays provided in input.
+     *
+     * @param board    the board used as context for encoding the move
+     * @param move     the move to encode
+     * @param sanArray the array that receives the SAN notation of the move
+     * @param fanArray the array that receives the FAN notation of the move
+     * @param index    the index of the arrays where to store the notations
+     * @throws MoveConversionException if the move is not valid for the position
+     */
+    static void encode(Board board, Move move, String[] sanArray, String[] fanArray, int index)
+            throws MoveConversionException {
+        final Square from = move.getFrom();
+        final Square to = move.getTo();
+        final Piece piece = from == Square.NONE ? Piece.NONE : board.getPiece(from);
+        if (piece == Piece.NONE) {
+            throw new MoveConversionException("Invalid move [" +
+                    move + "] for current setup: " + board.getFen());
+        }
+        final PieceType type = piece.getPieceType();
+        final Side side = board.getSideToMove();
+        final int fileDelta = to.getFile().ordinal() - from.getFile().ordinal();
+        if (type == PieceType.KING && Math.abs(fileDelta) >= 2) { // is castle
+            if (!board.doMove(move, true)) {
+                throw new MoveConversionException("Invalid move [" +
+                        move + "] for current setup: " + board.getFen());
+            }
+            String castle = (fileDelta > 0 ? "O-O" : "O-O-O") + getCheckFlag(board);
+            sanArray[index] = castle;
+            fanArray[index] = castle;
+            return;
+        }
+
+        // the part of the notation between the symbols of the moving piece and of the promotion
+        final StringBuilder body = new StringBuilder(8);
+        boolean fileWritten = false;
+        if (type != PieceType.PAWN || fileDelta != 0) {
+            // resolving ambiguous move, ignoring the pieces that cannot leave the line of their pin
+            long others = board.squareAttackedByPieceType(to, side, type) & ~from.getBitboard();
+            if (others != 0L) {
+                Square kingSquare = board.getKingSquare(side);
+                if (kingSquare != Square.NONE) {
+                    int kingIndex = kingSquare.ordinal();
+                    long pinned = others & MoveGenerator.getPinnedPieces(board, side, kingIndex);
+                    for (; pinned != 0L; pinned &= pinned - 1) {
+                        int sourceIndex = Long.numberOfTrailingZeros(pinned);
+                        if ((Bitboard.getSquaresOnLine(kingIndex, sourceIndex) & to.getBitboard()) == 0L) {
+                            others &= ~(1L << sourceIndex);
+                        }
+                    }
+                }
+            }
+            if (others != 0L) {
+                if ((Bitboard.getFilebb(from) & others) == 0L) {
+                    body.append(FILES[from.getFile().ordinal()]);
+                } else if ((Bitboard.getRankbb(from) & others) == 0L) {
+                    body.append(RANKS[from.getRank().ordinal()]);
+                } else {
+                    body.append(FILES[from.getFile().ordinal()]).append(RANKS[from.getRank().ordinal()]);
+                }
+                fileWritten = true;
+            }
+        }
+
+        // a pawn moving to another file always captures, possibly en passant
+        final boolean capture = board.getPiece(to) != Piece.NONE || (type == PieceType.PAWN && fileDelta != 0);
+        if (!board.doMove(move, true)) {
+            throw new MoveConversionException("Invalid move [" +
+                    move + "] for current setup: " + board.getFen());
+        }
+        if (capture) {
+            if (!fileWritten && type == PieceType.PAWN) {
+                body.append(FILES[from.getFile().ordinal()]);
+            }
+            body.append('x');
+        }
+        body.append(FILES[to.getFile().ordinal()]).append(RANKS[to.getRank().ordinal()]);
+        String sanPromotion = "";
+        String fanPromotion = "";
+        if (move.getPromotion() != Piece.NONE) {
+            body.append('=');
+            sanPromotion = move.getPromotion().getSanSymbol();
+            fanPromotion = move.getPromotion().getFanSymbol();
+        }
+        String check = getCheckFlag(board);
+        sanArray[index] = piece.getSanSymbol() + body + sanPromotion + check;
+        fanArray[index] = piece.getFanSymbol() + body + fanPromotion + check;
+    }
+
+    private static String getCheckFlag(Board board) {
+        if (board.isKingAttacked()) {
+            return MoveGenerator.hasLegalMoves(board) ? "+" : "#";
+        }
+        return "";
+    }
+
+    private static boolean isCastle(char[] token, int length, int castleLength) {
+        if (length != castleLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = token[i];
+            if ((i & 1) == 0 ? c != 'O' && c != '0' : c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PieceType pieceType(char symbol, String san) throws MoveConversionException {
+        switch (symbol) {
+            case 'N':
+                return PieceType.KNIGHT;
+            case 'B':
+                return PieceType.BISHOP;
+            case 'R':
+                return PieceType.ROOK;
+            case 'Q':
+                return PieceType.QUEEN;
+            case 'K':
+                return PieceType.KING;
+            default:
+                throw new MoveConversionException("Couldn't parse piece of SAN move " + san);
+        }
+    }
+
+    private static Piece promotionPiece(char symbol, Side side, String san) throws MoveConversionException {
+        switch (Character.toUpperCase(symbol)) {
+            case 'N':
+                return Piece.make(side, PieceType.KNIGHT);
+            case 'B':
+                return Piece.make(side, PieceType.BISHOP);
+            case 'R':
+                return Piece.make(side, PieceType.ROOK);
+            case 'Q':
+                return Piece.make(side, PieceType.QUEEN);
+            default:
+                throw new MoveConversionException("Couldn't parse promotion of SAN move " + san);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.perft;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.move.Move;
+import com.github.bhlangonijr.chesslib.move.MoveGenerator;
+import com.github.bhlangonijr.chesslib.move.PackedMove;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A performance test (perft) walker, that counts all the leaf nodes of the legal move tree of a position up to a given
+ * depth. Since the correct numbers are known for many positions, perft is the standard way to validate a move
+ * generator, and its speed is a good measure of the generator throughput.
+ * <p>
+ * The walker uses bulk counting, that is, the number of legal moves generated at the last ply is taken as the number of
+ * leaf nodes without playing them. Optionally, it can use a {@link PerftHashTable} to avoid walking transpositions
+ * twice, and a {@link ForkJoinPool} to walk the subtrees of the root moves in parallel, each one on its own copy of the
+ * board.
+ */
+public class Perft {
+
+    private final PerftHashTable hashTable;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new sequential perft walker, that does not use any hash table.
+     */
+    public Perft() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs a new perft walker.
+     *
+     * @param hashTable the hash table used to cache the number of nodes of visited subtrees, or {@code null} to
+     *                  walk every subtree
+     * @param pool      the pool used to walk the subtrees of the root moves in parallel, or {@code null} to walk
+     *                  them sequentially
+     */
+    public Perft(PerftHashTable hashTable, ForkJoinPool pool) {
+        this.hashTable = hashTable;
+        this.pool = pool;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree of the given position, up to the given depth. The board is left in
+     * the same state it was before the invocation.
+     *
+     * @param board the position to walk
+     * @param depth the depth of the tree
+     * @return the number of leaf nodes
+     */
+    public long perft(Board board, int depth) {
+        if (depth <= 0) {
+            return 1L;
+        }
+        if (pool != null) {
+            return divide(board, depth).getNodes();
+        }
+        boolean enableEvents = board.isEnableEvents();
+        board.setEnableEvents(false);
+        try {
+            return count(board, depth, new int[depth][MoveGenerator.MAX_MOVES], 0);
+        } finally {
+            board.setEnableEvents(enableEvents);
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree of the given position, up to the given depth, breaking them down
+     * by root move. The board is left in the same state it was before the invocation.
+     *
+     * @param board the position to walk
+     * @param depth the depth of the tree
+     * @return the result of the computation, including the number of leaf nodes of each root move
+     */
+    public PerftResult divide(Board board, int depth) {
+        long start = System.nanoTime();
+        Map<Move, Long> divide = new LinkedHashMap<>();
+        if (depth <= 0) {
+            return new PerftResult(depth, 1L, System.nanoTime() - start, divide);
+        }
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves);
+        long nodes = 0L;
+        if (pool != null) {
+            List<ForkJoinTask<Long>> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(pool.submit(new RootMoveTask(this, board.clone(), moves[i], depth)));
+            }
+            for (int i = 0; i < count; i++) {
+                long moveNodes = tasks.get(i).join();
+                divide.put(PackedMove.toMove(moves[i]), moveNodes);
+                nodes += moveNodes;
+            }
+        } else {
+            boolean enableEvents = board.isEnableEvents();
+            board.setEnableEvents(false);
+            try {
+                int[][] buffers = new int[depth][MoveGenerator.MAX_MOVES];
+                for (int i = 0; i < count; i++) {
+                    long moveNodes = 1L;
+                    if (depth > 1) {
+                        board.doMove(moves[i], false);
+                        moveNodes = count(board, depth - 1, buffers, 1);
+                        board.undoMove();
+                    }
+                    divide.put(PackedMove.toMove(moves[i]), moveNodes);
+                    nodes += moveNodes;
+                }
+            } finally {
+                board.setEnableEvents(enableEvents);
+            }
+        }
+        return new PerftResult(depth, nodes, System.nanoTime() - start, divide);
+    }
+
+    private long count(Board board, int depth, int[][] buffers, int ply) {
+        long key = board.getIncrementalHashKey();
+        if (hashTable != null && depth > 1) {
+            long nodes = hashTable.get(key, depth);
+            if (nodes >= 0L) {
+                return nodes;
+            }
+        }
+        int[] moves = buffers[ply];
+        int count = MoveGenerator.generateLegalMoves(board, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0L;
+        for (int i = 0; i < count; i++) {
+            board.doMove(moves[i], false);
+            nodes += count(board, depth - 1, buffers, ply + 1);
+            board.undoMove();
+        }
+        if (hashTable != null) {
+            hashTable.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    private static class RootMoveTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 4129476538470245937L;
+
+        private final transient Perft perft;
+        private final transient Board board;
+        private final int move;
+        private final int depth;
+
+        RootMoveTask(Perft perft, Board board, int move, int depth) {
+            this.perft = perft;
+            this.board = board;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth == 1) {
+                return 1L;
+            }
+            board.setEnableEvents(false);
+            board.doMove(move, false);
+            return perft.count(board, depth - 1, new int[depth][MoveGenerator.MAX_MOVES], 1);
+        }
+    }
+}
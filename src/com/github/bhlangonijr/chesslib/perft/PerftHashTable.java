@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.perft;
+
+import com.github.bhlangonijr.chesslib.Board;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table caching the number of leaf nodes of the subtrees already visited by a {@link Perft}
+ * computation. Entries are indexed by the incremental hash key of a position (see
+ * {@link Board#getIncrementalHashKey()}) and the depth of the subtree, and they are always replaced on collision.
+ * <p>
+ * The table can be shared by multiple threads without locking: each entry stores the hash key xor-ed with its data,
+ * so that an entry written concurrently by two threads fails the verification on read and it is simply ignored.
+ */
+public class PerftHashTable {
+
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Constructs a new hash table with the given number of entries, rounded down to the closest power of two. Each
+     * entry takes 16 bytes of memory.
+     *
+     * @param entries the number of entries of the table
+     */
+    public PerftHashTable(int entries) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("The hash table must have at least one entry");
+        }
+        int size = Integer.highestOneBit(entries);
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the number of leaf nodes stored for the given position and depth, if any.
+     *
+     * @param key   the incremental hash key of the position
+     * @param depth the depth of the subtree
+     * @return the number of leaf nodes, or {@code -1} if the table does not contain the entry
+     */
+    public long get(long key, int depth) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if ((keys[index] ^ entry) == key && (entry & DEPTH_MASK) == depth) {
+            return entry >>> DEPTH_BITS;
+        }
+        return -1L;
+    }
+
+    /**
+     * Stores the number of leaf nodes of the subtree of the given depth rooted in a position, replacing any entry
+     * previously stored in the same slot.
+     *
+     * @param key   the incremental hash key of the position
+     * @param depth the depth of the subtree
+     * @param nodes the number of leaf nodes
+     */
+    public void put(long key, int depth, long nodes) {
+        int index = (int) key & mask;
+        long entry = (nodes << DEPTH_BITS) | (depth & DEPTH_MASK);
+        keys[index] = key ^ entry;
+        data[index] = entry;
+    }
+
+    /**
+     * Removes all the entries from the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    /**
+     * Returns the number of entries of the table.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.perft;
+
+import com.github.bhlangonijr.chesslib.Constants;
+
+/**
+ * The standard positions used to validate move generators, together with their known perft results. Besides the
+ * starting position, they stress castling, en passant captures (including the ones exposing the king), promotions and
+ * checks.
+ */
+public enum PerftPosition {
+
+    /**
+     * The starting position.
+     */
+    STARTING_POSITION(Constants.startStandardFENPosition,
+            20L, 400L, 8_902L, 197_281L, 4_865_609L, 119_060_324L),
+    /**
+     * The "Kiwipete" position, rich in castling, en passant captures and promotions.
+     */
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48L, 2_039L, 97_862L, 4_085_603L, 193_690_690L),
+    /**
+     * An endgame position with en passant captures that leave the king in check along the rank.
+     */
+    EN_PASSANT_PINS("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14L, 191L, 2_812L, 43_238L, 674_624L, 11_030_083L),
+    /**
+     * A position with the white king in check, castling rights and promotions on both sides.
+     */
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6L, 264L, 9_467L, 422_333L, 15_833_292L),
+    /**
+     * A position with an underpromotion capturing into check and a knight forking king and rook.
+     */
+    UNDERPROMOTIONS("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44L, 1_486L, 62_379L, 2_103_487L, 89_941_194L),
+    /**
+     * A symmetrical middlegame position with pins on both sides.
+     */
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46L, 2_079L, 89_890L, 3_894_594L, 164_075_551L);
+
+    private final String fen;
+    private final long[] nodes;
+
+    PerftPosition(String fen, long... nodes) {
+        this.fen = fen;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Returns the FEN representation of the position.
+     *
+     * @return the FEN of the position
+     */
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * Returns the maximum depth for which the number of leaf nodes of the position is known.
+     *
+     * @return the maximum known depth
+     */
+    public int getMaxDepth() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the known number of leaf nodes of the position at the given depth.
+     *
+     * @param depth the depth, between 1 and {@link PerftPosition#getMaxDepth()}
+     * @return the number of leaf nodes
+     */
+    public long getNodes(int depth) {
+        return nodes[depth - 1];
+    }
+}
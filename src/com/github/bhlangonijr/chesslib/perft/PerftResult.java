@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.perft;
+
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The outcome of a {@link Perft} computation: the total number of leaf nodes, the breakdown of the nodes by root move
+ * (the so-called <i>divide</i>), and the time spent computing them.
+ */
+public class PerftResult {
+
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final Map<Move, Long> divide;
+
+    /**
+     * Constructs a new perft result.
+     *
+     * @param depth        the depth of the computation
+     * @param nodes        the total number of leaf nodes
+     * @param elapsedNanos the time spent in the computation, in nanoseconds
+     * @param divide       the number of leaf nodes of each root move, in generation order
+     */
+    public PerftResult(int depth, long nodes, long elapsedNanos, Map<Move, Long> divide) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.divide = Collections.unmodifiableMap(divide);
+    }
+
+    /**
+     * Returns the depth of the computation.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the total number of leaf nodes.
+     *
+     * @return the number of leaf nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the time spent in the computation, in milliseconds.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    /**
+     * Returns the number of leaf nodes counted per second.
+     *
+     * @return the nodes per second
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0L ? 0L : (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+    }
+
+    /**
+     * Returns the number of leaf nodes of each root move, in generation order. The map is unmodifiable.
+     *
+     * @return the number of leaf nodes by root move
+     */
+    public Map<Move, Long> getDivide() {
+        return divide;
+    }
+
+    /**
+     * Returns the divide breakdown, one root move per line in the format {@code e2e4: 20}, followed by the totals.
+     *
+     * @return a string representation of the result
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Move, Long> entry : divide.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        sb.append("depth: ").append(depth)
+                .append(", nodes: ").append(nodes)
+                .append(", time: ").append(getElapsedTime()).append(" ms")
+                .append(", nps: ").append(getNodesPerSecond());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.perft;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs {@link Perft} on all the {@link PerftPosition} standard positions, checking the results against the known
+ * numbers of leaf nodes and reporting the throughput of the move generator.
+ * <p>
+ * The suite can be launched from the command line, with the optional arguments {@code [depth] [threads]
+ * [hashEntries]}: the maximum depth (5 by default, capped to the deepest known result of each position), the number of
+ * threads (1 by default, that is, sequential) and the number of entries of the hash table (0 by default, that is, no
+ * hash table). The process exits with status 1 if any result does not match.
+ */
+public class PerftSuite {
+
+    private final Perft perft;
+    private final PrintStream out;
+
+    /**
+     * Constructs a new suite.
+     *
+     * @param perft the perft walker to use
+     * @param out   the stream the results are printed to
+     */
+    public PerftSuite(Perft perft, PrintStream out) {
+        this.perft = perft;
+        this.out = out;
+    }
+
+    /**
+     * Runs perft on all the standard positions up to the given depth, printing the result of each of them.
+     *
+     * @param depth the maximum depth
+     * @return {@code true} if all the results match the known numbers of leaf nodes
+     */
+    public boolean run(int depth) {
+        boolean passed = true;
+        long totalNodes = 0L;
+        long totalNanos = 0L;
+        for (PerftPosition position : PerftPosition.values()) {
+            int positionDepth = Math.min(depth, position.getMaxDepth());
+            Board board = new Board(new GameContext(), true, false);
+            board.loadFromFen(position.getFen());
+            long start = System.nanoTime();
+            long nodes = perft.perft(board, positionDepth);
+            long elapsed = System.nanoTime() - start;
+            boolean ok = nodes == position.getNodes(positionDepth);
+            passed &= ok;
+            totalNodes += nodes;
+            totalNanos += elapsed;
+            out.printf("%-18s depth %d: %12d nodes %8d ms %12d nps %s%n", position, positionDepth, nodes,
+                    elapsed / 1_000_000L, nodesPerSecond(nodes, elapsed),
+                    ok ? "OK" : "FAILED, expected " + position.getNodes(positionDepth));
+        }
+        out.printf("%-18s          %12d nodes %8d ms %12d nps%n", "TOTAL", totalNodes,
+                totalNanos / 1_000_000L, nodesPerSecond(totalNodes, totalNanos));
+        return passed;
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0L ? 0L : (long) (nodes * 1_000_000_000.0 / nanos);
+    }
+
+    /**
+     * Runs the suite from the command line.
+     *
+     * @param args the optional arguments {@code [depth] [threads] [hashEntries]}
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int hashEntries = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        PerftHashTable hashTable = hashEntries > 0 ? new PerftHashTable(hashEntries) : null;
+        try {
+            boolean passed = new PerftSuite(new Perft(hashTable, pool), System.out).run(depth);
+            if (!passed) {
+                System.exit(1);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+}
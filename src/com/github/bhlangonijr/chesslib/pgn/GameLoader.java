@@ -34,11 +34,11 @@ import java.util.Iterator;
 import java.util.UUID;
 
 import static com.github.bhlangonijr.chesslib.pgn.PgnProperty.UTF8_BOM;
-import static com.github.bhlangonijr.chesslib.pgn.PgnProperty.isProperty;
 import static com.github.bhlangonijr.chesslib.pgn.PgnProperty.parsePgnProperty;
 
 /**
- * A convenient loader to extract a chess game and its metadata from an iterator over the lines of the PGN file.
+ * A convenient loader to extract a chess game and its metadata from an iterator over the lines of the PGN file, or
+ * from a {@link PgnReader}.
  * <p>
  * The implementation allows loading only a single PGN game at a time.
  */
@@ -52,27 +52,33 @@ public class GameLoader {
      * @return the next game read from the iterator
      */
     public static Game loadNextGame(Iterator<String> iterator) {
+        return loadNextGame(new IteratorLines(iterator));
+    }
 
-        if (!iterator.hasNext()) {
-            return null;
-        }
+    /**
+     * Loads the next game of chess from a reader of a Portable Game Notation (PGN) file. The lines of the file are
+     * consumed until the game is fully loaded. The game is loaded as from an iterator over the lines of the file, but
+     * the lines are tokenized directly from the bytes of the file.
+     *
+     * @param reader the reader of a PGN file
+     * @return the next game read from the file, or {@code null} if there are no more games
+     * @see GameLoader#loadNextGame(Iterator)
+     */
+    public static Game loadNextGame(PgnReader reader) {
+        return loadNextGame(new ReaderLines(reader));
+    }
+
+    private static Game loadNextGame(PgnLines lines) {
 
-        PgnTempContainer container = new PgnTempContainer();
+        PgnTempContainer container = null;
 
-        while (iterator.hasNext()) {
-            String line = iterator.next().trim();
-            if (line.startsWith(UTF8_BOM)) {
-                line = line.substring(1);
+        while (lines.nextLine()) {
+            if (container == null) {
+                container = new PgnTempContainer();
             }
             try {
-                if (isProperty(line)) {
-                    addProperty(line, container);
-                } else if (StringUtils.isNotEmpty(line)) {
-                    addMoveText(line, container);
-                    if (isEndGame(line)) {
-                        setMoveText(container.game, container.moveText);
-                        return container.initGame ? container.game : null;
-                    }
+                if (addLine(lines, container)) {
+                    return container.game;
                 }
             } catch (Exception e) { //TODO stricter exceptions
                 String name = container.event.getName();
@@ -80,11 +86,29 @@ public class GameLoader {
                 throw new PgnException(String.format("Error parsing PGN[%d, %s]: ", r, name), e);
             }
         }
-        return container.initGame ? container.game : null;
+        return container != null && container.initGame ? container.game : null;
     }
 
-    private static void addProperty(String line, PgnTempContainer container) throws Exception {
-        PgnProperty property = parsePgnProperty(line);
+    /*
+     * adds the current line, either a tag pair or a line of movetext, to the game being loaded, and returns true if the
+     * line terminates the movetext of the game
+     */
+    private static boolean addLine(PgnLines lines, PgnTempContainer container) throws Exception {
+        if (lines.isProperty()) {
+            addProperty(lines.readProperty(), container);
+            return false;
+        }
+        container.initGame = true;
+        lines.appendLine(container.moveText);
+        container.moveTextParsing = true;
+        if (lines.isEndOfGame()) {
+            setMoveText(container.game, container.moveText);
+            return true;
+        }
+        return false;
+    }
+
+    private static void addProperty(PgnProperty property, PgnTempContainer container) throws Exception {
         if (property == null) {
             return;
         }
@@ -201,15 +225,99 @@ public class GameLoader {
         }
     }
 
-    private static void addMoveText(String line, PgnTempContainer container) {
-        container.initGame = true;
-        container.moveText.append(line);
-        container.moveText.append('\n');
-        container.moveTextParsing = true;
+    /*
+     * the non-blank lines of a PGN file
+     */
+    private interface PgnLines {
+
+        boolean nextLine();
+
+        boolean isProperty();
+
+        PgnProperty readProperty();
+
+        void appendLine(StringBuilder builder);
+
+        boolean isEndOfGame();
+    }
+
+    private static class IteratorLines implements PgnLines {
+
+        private final Iterator<String> iterator;
+        private String line;
+
+        IteratorLines(Iterator<String> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean nextLine() {
+            while (iterator.hasNext()) {
+                line = iterator.next().trim();
+                if (line.startsWith(UTF8_BOM)) {
+                    line = line.substring(1);
+                }
+                if (StringUtils.isNotEmpty(line)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isProperty() {
+            return PgnProperty.isProperty(line);
+        }
+
+        @Override
+        public PgnProperty readProperty() {
+            return parsePgnProperty(line);
+        }
+
+        @Override
+        public void appendLine(StringBuilder builder) {
+            builder.append(line);
+            builder.append('\n');
+        }
+
+        @Override
+        public boolean isEndOfGame() {
+            return line.endsWith("1-0") || line.endsWith("0-1") || line.endsWith("1/2-1/2") || line.endsWith("*");
+        }
     }
 
-    private static boolean isEndGame(String line) {
-        return line.endsWith("1-0") || line.endsWith("0-1") || line.endsWith("1/2-1/2") || line.endsWith("*");
+    private static class ReaderLines implements PgnLines {
+
+        private final PgnReader reader;
+
+        ReaderLines(PgnReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean nextLine() {
+            return reader.nextLine();
+        }
+
+        @Override
+        public boolean isProperty() {
+            return reader.isProperty();
+        }
+
+        @Override
+        public PgnProperty readProperty() {
+            return reader.readProperty();
+        }
+
+        @Override
+        public void appendLine(StringBuilder builder) {
+            reader.appendLine(builder);
+        }
+
+        @Override
+        public boolean isEndOfGame() {
+            return reader.isEndOfGame();
+        }
     }
 
     private static class PgnTempContainer {
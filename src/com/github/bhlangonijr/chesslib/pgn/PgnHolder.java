@@ -131,7 +131,7 @@ public class PgnHolder {
      * @throws Exception in case of error loading the contents of the file
      */
     public void loadPgn() throws Exception {
-        loadPgn(new LargeFile(getFileName()));
+        loadPgn(new PgnReader(getFileName()));
     }
 
     /**
@@ -170,6 +170,27 @@ public class PgnHolder {
         }
     }
 
+    /**
+     * Loads into memory the chess data stored in the PGN file read by the given reader.
+     *
+     * @param reader the reader of the PGN file to load
+     * @throws Exception in case of error loading the contents of the file
+     */
+    public void loadPgn(PgnReader reader) throws Exception {
+
+        size = 0;
+
+        PgnIterator games = new PgnIterator(reader);
+
+        try {
+            for (Game game : games) {
+                addGame(game);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
     /**
      * Loads into memory the chess data of the given PGN, provided as a raw string representation.
      *
@@ -24,11 +24,14 @@ import com.github.bhlangonijr.chesslib.util.LargeFile;
 /**
  * A Portable Game Notation (PGN) iterator, used to navigate the games contained in PGN file.
  * <p>
- * The iterator permits iterating over large PGN files without piling up every game into the memory.
+ * The iterator permits iterating over large PGN files without piling up every game into the memory. When created
+ * from a file name, the games are read through a {@link PgnReader}, that maps the file into memory.
  */
 public class PgnIterator implements Iterable<Game>, AutoCloseable {
 
     private final Iterator<String> pgnLines;
+    private final PgnReader reader;
+    private final AutoCloseable resource;
 
     private Game game;
 
@@ -40,7 +43,18 @@ public class PgnIterator implements Iterable<Game>, AutoCloseable {
      */
     public PgnIterator(String filename) throws Exception {
 
-        this(new LargeFile(filename));
+        this(new PgnReader(filename));
+    }
+
+    /**
+     * Constructs a new PGN iterator reading the games from a PGN reader. The reader is closed when the iterator is
+     * closed.
+     *
+     * @param reader the reader of the PGN file
+     */
+    public PgnIterator(PgnReader reader) {
+
+        this(null, reader, reader);
     }
 
     /**
@@ -50,8 +64,7 @@ public class PgnIterator implements Iterable<Game>, AutoCloseable {
      */
     public PgnIterator(LargeFile file) {
 
-        this.pgnLines = file.iterator();
-        loadNextGame();
+        this(file.iterator(), null, file);
     }
 
     /**
@@ -61,8 +74,7 @@ public class PgnIterator implements Iterable<Game>, AutoCloseable {
      */
     public PgnIterator(Iterable<String> pgnLines) {
 
-        this.pgnLines = pgnLines.iterator();
-        loadNextGame();
+        this(pgnLines.iterator(), null, pgnLines instanceof AutoCloseable ? (AutoCloseable) pgnLines : null);
     }
 
     /**
@@ -72,7 +84,14 @@ public class PgnIterator implements Iterable<Game>, AutoCloseable {
      */
     public PgnIterator(Iterator<String> pgnLines) {
 
+        this(pgnLines, null, null);
+    }
+
+    private PgnIterator(Iterator<String> pgnLines, PgnReader reader, AutoCloseable resource) {
+
         this.pgnLines = pgnLines;
+        this.reader = reader;
+        this.resource = resource;
         loadNextGame();
     }
 
@@ -92,14 +111,14 @@ public class PgnIterator implements Iterable<Game>, AutoCloseable {
     @Override
     public void close() throws Exception {
 
-        if (pgnLines instanceof LargeFile) {
-            ((LargeFile) (pgnLines)).close();
+        if (resource != null) {
+            resource.close();
         }
     }
 
     private void loadNextGame() {
 
-        game = GameLoader.loadNextGame(pgnLines);
+        game = reader != null ? GameLoader.loadNextGame(reader) : GameLoader.loadNextGame(pgnLines);
     }
 
     private class GameIterator implements Iterator<Game> {
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.pgn;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import com.github.bhlangonijr.chesslib.game.Game;
+
+/**
+ * A reader of Portable Game Notation (PGN) files that accesses their content by mapping it into memory, and that
+ * tokenizes the lines of the file directly from their bytes, without decoding them to strings first. Only the values
+ * of the tags and the movetext, that are part of the loaded games, are decoded, assuming the UTF-8 encoding.
+ * <p>
+ * The file is mapped in chunks, so that files larger than 2GB can be read as well: only the chunk containing the
+ * lines currently read is mapped at any time. The reader is the preferred source of games for a {@link PgnIterator}
+ * when loading large PGN files.
+ * <p>
+ * The reader is not thread-safe.
+ *
+ * @see GameLoader#loadNextGame(PgnReader)
+ */
+public class PgnReader implements AutoCloseable {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+    private static final int MAX_ASCII = 0x7F;
+    // tag names returned as constants when found in the file, to avoid decoding them
+    private static final String[] KNOWN_TAGS = {
+            "Event", "Site", "Date", "Round", "White", "Black", "Result", "WhiteElo", "BlackElo", "ECO", "Opening",
+            "Variation", "TimeControl", "Termination", "PlyCount", "Annotator", "FEN", "SetUp", "EventDate", "UTCDate",
+            "UTCTime", "WhiteTitle", "BlackTitle", "WhiteRatingDiff", "BlackRatingDiff", "Variant"
+    };
+    private static final byte[][] KNOWN_TAG_BYTES = new byte[KNOWN_TAGS.length][];
+
+    static {
+        for (int i = 0; i < KNOWN_TAGS.length; i++) {
+            KNOWN_TAG_BYTES[i] = KNOWN_TAGS[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int chunkSize;
+
+    private MappedByteBuffer chunk;
+    private long chunkOffset;
+    private int chunkLimit;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructs a new reader of the PGN file with the given path.
+     *
+     * @param filePath the path of the PGN file
+     * @throws IOException in case the file can not be accessed
+     */
+    public PgnReader(String filePath) throws IOException {
+        this(Paths.get(filePath));
+    }
+
+    /**
+     * Constructs a new reader of the PGN file with the given path.
+     *
+     * @param file the path of the PGN file
+     * @throws IOException in case the file can not be accessed
+     */
+    public PgnReader(Path file) throws IOException {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    PgnReader(Path file, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads the next game of chess from the PGN file.
+     * <p>
+     * Same as invoking {@code GameLoader.loadNextGame(reader)}.
+     *
+     * @return the next game read from the file, or {@code null} if there are no more games
+     * @see GameLoader#loadNextGame(PgnReader)
+     */
+    public Game nextGame() {
+        return GameLoader.loadNextGame(this);
+    }
+
+    /**
+     * Closes the PGN file and releases the system resources associated with it.
+     *
+     * @throws IOException in case of error closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        chunk = null;
+        channel.close();
+    }
+
+    /**
+     * Advances the reader to the next line of the file that is not blank. Leading and trailing whitespace, as well as
+     * the byte order mark at the beginning of the line, are not part of the line.
+     *
+     * @return {@code true} if a line was found, {@code false} if the end of the file was reached
+     */
+    boolean nextLine() {
+        while (true) {
+            if (position >= chunkLimit) {
+                if (chunkOffset + chunkLimit >= fileSize) {
+                    return false;
+                }
+                map(chunkOffset + chunkLimit);
+            }
+            int end = position;
+            while (end < chunkLimit && chunk.get(end) != '\n' && chunk.get(end) != '\r') {
+                end++;
+            }
+            if (end == chunkLimit && chunkOffset + chunkLimit < fileSize) {
+                if (position == 0) {
+                    throw new PgnException("Line too long at offset " + chunkOffset);
+                }
+                // the line continues in the next chunk, mapped starting from the beginning of the line
+                map(chunkOffset + position);
+                continue;
+            }
+            int next = end + 1;
+            if (end + 1 < chunkLimit && chunk.get(end) == '\r' && chunk.get(end + 1) == '\n') {
+                next++;
+            }
+            int start = position;
+            while (start < end && (chunk.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (chunk.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            if (end - start >= 3 && chunk.get(start) == (byte) 0xEF && chunk.get(start + 1) == (byte) 0xBB &&
+                    chunk.get(start + 2) == (byte) 0xBF) {
+                start += 3;
+            }
+            position = next;
+            if (start < end) {
+                lineStart = start;
+                lineEnd = end;
+                return true;
+            }
+        }
+    }
+
+    private void map(long offset) {
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(chunkSize, fileSize - offset));
+        } catch (IOException e) {
+            throw new PgnException("Error reading PGN file", e);
+        }
+        chunkOffset = offset;
+        chunkLimit = chunk.limit();
+        position = 0;
+    }
+
+    /**
+     * Checks whether the current line contains a tag pair, such as {@code [White "Kasparov, Gary"]}.
+     *
+     * @return {@code true} if the line is a tag pair
+     * @see PgnProperty#isProperty(String)
+     */
+    boolean isProperty() {
+        if (chunk.get(lineStart) != '[' || chunk.get(lineEnd - 1) != ']' || lineEnd - lineStart < 5 ||
+                chunk.get(lineEnd - 2) != '"') {
+            return false;
+        }
+        for (int i = lineStart + 1; i <= lineEnd - 4; i++) {
+            if (chunk.get(i) == ' ' && chunk.get(i + 1) == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the tag pair of the current line. The name of the tag ends at the first space, while the value follows
+     * it. Brackets and quotes are removed from both.
+     *
+     * @return the PGN property of the line
+     * @see PgnProperty#parsePgnProperty(String)
+     */
+    PgnProperty readProperty() {
+        int space = lineStart;
+        while (chunk.get(space) != ' ') {
+            space++;
+        }
+        return new PgnProperty(decode(lineStart, space, true), decode(space + 1, lineEnd, false));
+    }
+
+    /*
+     * decodes a range of the current chunk skipping brackets and quotes, possibly returning a known tag name
+     */
+    private String decode(int from, int to, boolean tagName) {
+        if (scratch.length < to - from) {
+            scratch = new byte[Math.max(to - from, 2 * scratch.length)];
+        }
+        int length = 0;
+        boolean ascii = true;
+        for (int i = from; i < to; i++) {
+            byte b = chunk.get(i);
+            if (b != '[' && b != ']' && b != '"') {
+                scratch[length++] = b;
+                ascii &= b >= 0;
+            }
+        }
+        if (tagName) {
+            for (int i = 0; i < KNOWN_TAG_BYTES.length; i++) {
+                if (equals(KNOWN_TAG_BYTES[i], scratch, length)) {
+                    return KNOWN_TAGS[i];
+                }
+            }
+        }
+        return new String(scratch, 0, length, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private static boolean equals(byte[] tag, byte[] bytes, int length) {
+        if (tag.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (tag[i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the current line to a builder, followed by a line feed.
+     *
+     * @param builder the builder the line is appended to
+     */
+    void appendLine(StringBuilder builder) {
+        int i = lineStart;
+        while (i < lineEnd && chunk.get(i) >= 0) {
+            builder.append((char) chunk.get(i));
+            i++;
+        }
+        if (i < lineEnd) {
+            // the rest of the line is not plain ASCII
+            int length = lineEnd - i;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            for (int j = 0; j < length; j++) {
+                scratch[j] = chunk.get(i + j);
+            }
+            builder.append(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        }
+        builder.append('\n');
+    }
+
+    /**
+     * Checks whether the current line terminates the movetext of a game, that is, if it ends with a game result.
+     *
+     * @return {@code true} if the line ends with a game result
+     */
+    boolean isEndOfGame() {
+        return endsWith("1-0") || endsWith("0-1") || endsWith("1/2-1/2") || endsWith("*");
+    }
+
+    private boolean endsWith(String suffix) {
+        int start = lineEnd - suffix.length();
+        if (start < lineStart) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (chunk.get(start + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
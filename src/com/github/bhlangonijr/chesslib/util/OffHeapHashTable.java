@@ -0,0 +1,316 @@
+/*
+ * Copyright 2017 Ben-Hur Carlos Vieira Langoni Junior
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.bhlangonijr.chesslib.util;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An open-addressing hash table keyed by 64-bit position hashes, such as the ones returned by
+ * {@code Board.getZobristKey()}, and stored outside the Java heap using the Foreign Function and Memory API. Being
+ * off-heap, the table can be sized in gigabytes without increasing the pressure on the garbage collector.
+ * <p>
+ * Each slot of the table holds a key and a fixed number of {@code long} values, that are zero when the key is first
+ * inserted. Keys are placed with linear probing, looking at up to 16 consecutive slots, and they are never removed,
+ * except when the whole table is cleared. The table is designed for caches and counters keyed by positions, like perft
+ * results, analysis results or opening statistics.
+ * <p>
+ * The table supports concurrent updates without locking: a key is inserted claiming an empty slot with a
+ * compare-and-set operation, and each value is read and written atomically, so that counters can be incremented
+ * concurrently by multiple threads. Values of the same key are not updated atomically with respect to each other.
+ * <p>
+ * A table can be either allocated in memory, or mapped to a file to make it persistent across runs. The memory is
+ * released when the table is closed, and the table cannot be used afterwards. The key zero is used to mark empty slots,
+ * hence it is replaced internally by another constant: the two keys share the same entry, which is an acceptable
+ * collision for random hash keys.
+ */
+public class OffHeapHashTable implements AutoCloseable {
+
+    private static final VarHandle LONG_HANDLE = ValueLayout.JAVA_LONG.varHandle();
+    private static final long EMPTY = 0L;
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+    private static final int MAX_PROBES = 16;
+    private static final long MAGIC = 0x4348455353485431L; // "CHESSHT1"
+    private static final long HEADER_SIZE = 64;
+    private static final long ALIGNMENT = 64;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long slots;
+    private final long mask;
+    private final int valueCount;
+    private final long slotSize;
+    private final boolean mapped;
+
+    private OffHeapHashTable(Arena arena, MemorySegment segment, long slots, int valueCount, boolean mapped) {
+        this.arena = arena;
+        this.segment = segment;
+        this.slots = slots;
+        this.mask = slots - 1;
+        this.valueCount = valueCount;
+        this.slotSize = slotSize(valueCount);
+        this.mapped = mapped;
+    }
+
+    /**
+     * Allocates a new table in memory, outside the Java heap. The number of slots is rounded down to the closest power
+     * of two, and each slot takes {@code 8 * (valueCount + 1)} bytes.
+     *
+     * @param slots      the number of slots of the table
+     * @param valueCount the number of values stored for each key
+     * @return the new table, with no entries
+     * @throws IllegalArgumentException if the number of slots or of values is not positive
+     */
+    public static OffHeapHashTable allocate(long slots, int valueCount) {
+        long size = validate(slots, valueCount);
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(HEADER_SIZE + size * slotSize(valueCount), ALIGNMENT);
+        writeHeader(segment, size, valueCount);
+        return new OffHeapHashTable(arena, segment, size, valueCount, false);
+    }
+
+    /**
+     * Maps a table to a file, so that its content is persisted. If the file is empty or does not exist, it is created
+     * and initialized with a table with no entries; otherwise, the table previously stored in the file is opened, and
+     * its number of slots and values must match the ones requested. Changes are written back to the file by the
+     * operating system, or explicitly invoking {@link OffHeapHashTable#force()}.
+     *
+     * @param file       the file backing the table
+     * @param slots      the number of slots of the table, rounded down to the closest power of two
+     * @param valueCount the number of values stored for each key
+     * @return the table mapped to the file
+     * @throws IOException              if the file cannot be mapped, or it contains a different table
+     * @throws IllegalArgumentException if the number of slots or of values is not positive
+     */
+    public static OffHeapHashTable map(Path file, long slots, int valueCount) throws IOException {
+        long size = validate(slots, valueCount);
+        long byteSize = HEADER_SIZE + size * slotSize(valueCount);
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize != 0 && fileSize != byteSize) {
+                throw new IOException("The file " + file + " does not contain a table of the requested size");
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize, arena);
+            if (fileSize == 0) {
+                writeHeader(segment, size, valueCount);
+            } else if (segment.get(ValueLayout.JAVA_LONG, 0) != MAGIC ||
+                    segment.get(ValueLayout.JAVA_LONG, 8) != size ||
+                    segment.get(ValueLayout.JAVA_LONG, 16) != valueCount) {
+                throw new IOException("The file " + file + " does not contain a compatible table");
+            }
+            return new OffHeapHashTable(arena, segment, size, valueCount, true);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private static long validate(long slots, int valueCount) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("The table must have at least one slot");
+        }
+        if (valueCount < 1) {
+            throw new IllegalArgumentException("The table must store at least one value for each key");
+        }
+        return Long.highestOneBit(slots);
+    }
+
+    private static long slotSize(int valueCount) {
+        return 8L * (valueCount + 1);
+    }
+
+    private static void writeHeader(MemorySegment segment, long slots, int valueCount) {
+        segment.set(ValueLayout.JAVA_LONG, 0, MAGIC);
+        segment.set(ValueLayout.JAVA_LONG, 8, slots);
+        segment.set(ValueLayout.JAVA_LONG, 16, valueCount);
+    }
+
+    /**
+     * Checks whether the table contains a key.
+     *
+     * @param key the key to look up
+     * @return {@code true} if the key is in the table
+     */
+    public boolean contains(long key) {
+        return find(key, false) >= 0;
+    }
+
+    /**
+     * Returns a value stored for a key.
+     *
+     * @param key          the key to look up
+     * @param index        the index of the value, between zero (inclusive) and the number of values (exclusive)
+     * @param defaultValue the value to return if the key is not in the table
+     * @return the value stored for the key, or the default value if the key is not in the table
+     */
+    public long get(long key, int index, long defaultValue) {
+        checkIndex(index);
+        long offset = find(key, false);
+        return offset < 0 ? defaultValue : (long) LONG_HANDLE.getVolatile(segment, offset + 8L * (index + 1));
+    }
+
+    /**
+     * Stores a value for a key, inserting the key if it is not in the table yet.
+     *
+     * @param key   the key
+     * @param index the index of the value, between zero (inclusive) and the number of values (exclusive)
+     * @param value the value to store
+     * @return {@code true} if the value was stored, {@code false} if the key could not be inserted because the slots
+     * where it can be placed are all taken by other keys
+     */
+    public boolean put(long key, int index, long value) {
+        checkIndex(index);
+        long offset = find(key, true);
+        if (offset < 0) {
+            return false;
+        }
+        LONG_HANDLE.setVolatile(segment, offset + 8L * (index + 1), value);
+        return true;
+    }
+
+    /**
+     * Atomically adds a delta to a value stored for a key, inserting the key if it is not in the table yet.
+     *
+     * @param key   the key
+     * @param index the index of the value, between zero (inclusive) and the number of values (exclusive)
+     * @param delta the delta to add to the value
+     * @return the updated value
+     * @throws IllegalStateException if the key could not be inserted because the slots where it can be placed are all
+     *                               taken by other keys
+     */
+    public long add(long key, int index, long delta) {
+        checkIndex(index);
+        long offset = find(key, true);
+        if (offset < 0) {
+            throw new IllegalStateException("The hash table is full");
+        }
+        return (long) LONG_HANDLE.getAndAdd(segment, offset + 8L * (index + 1), delta) + delta;
+    }
+
+    /**
+     * Atomically sets a value stored for a key to a new value, if it is equal to the expected one. A key not in the
+     * table is inserted, with all its values equal to zero.
+     *
+     * @param key      the key
+     * @param index    the index of the value, between zero (inclusive) and the number of values (exclusive)
+     * @param expected the expected value
+     * @param value    the new value
+     * @return {@code true} if the value was updated, {@code false} if the current value was not the expected one or the
+     * key could not be inserted
+     */
+    public boolean compareAndSet(long key, int index, long expected, long value) {
+        checkIndex(index);
+        long offset = find(key, true);
+        return offset >= 0 && LONG_HANDLE.compareAndSet(segment, offset + 8L * (index + 1), expected, value);
+    }
+
+    /*
+     * returns the offset of the slot of the key, claiming an empty slot if requested, or -1 if the key is not found
+     */
+    private long find(long key, boolean insert) {
+        final long k = key == EMPTY ? ZERO_KEY : key;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long offset = HEADER_SIZE + ((k + probe) & mask) * slotSize;
+            long current = (long) LONG_HANDLE.getVolatile(segment, offset);
+            if (current == k) {
+                return offset;
+            }
+            if (current == EMPTY) {
+                if (!insert) {
+                    return -1L;
+                }
+                if (LONG_HANDLE.compareAndSet(segment, offset, EMPTY, k) ||
+                        (long) LONG_HANDLE.getVolatile(segment, offset) == k) {
+                    return offset;
+                }
+            }
+        }
+        return -1L;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= valueCount) {
+            throw new IndexOutOfBoundsException("Invalid value index " + index);
+        }
+    }
+
+    /**
+     * Counts the keys stored in the table, scanning all its slots.
+     *
+     * @return the number of keys in the table
+     */
+    public long count() {
+        long count = 0;
+        for (long i = 0; i < slots; i++) {
+            if ((long) LONG_HANDLE.getVolatile(segment, HEADER_SIZE + i * slotSize) != EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes all the keys from the table. The method must not be invoked while the table is updated by other threads.
+     */
+    public void clear() {
+        segment.asSlice(HEADER_SIZE).fill((byte) 0);
+    }
+
+    /**
+     * Writes the content of a table mapped to a file back to the storage device. It has no effect on tables allocated
+     * in memory.
+     */
+    public void force() {
+        if (mapped) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     *
+     * @return the number of slots
+     */
+    public long capacity() {
+        return slots;
+    }
+
+    /**
+     * Returns the number of values stored for each key.
+     *
+     * @return the number of values of each key
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Releases the memory of the table, or unmaps it from its file. The table cannot be used after it is closed.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
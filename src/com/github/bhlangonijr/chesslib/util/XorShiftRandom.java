@@ -36,4 +36,17 @@ public class XorShiftRandom {
         seed ^= seed >>> 27;
         return seed * 0x2545F4914F6CDD1DL;
     }
+
+    /**
+     * Returns the next pseudorandom int value between zero (inclusive) and the given bound (exclusive) from this random
+     * number generator's sequence. The value is computed from the high bits of the next long value with a
+     * multiplication instead of a division, hence it is slightly biased for bounds that are not powers of two, a bias
+     * that is negligible for small bounds.
+     *
+     * @param bound the upper bound (exclusive), that must be positive
+     * @return the next pseudorandom int value between zero (inclusive) and the bound (exclusive)
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
 }
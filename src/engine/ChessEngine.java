@@ -0,0 +1,35 @@
+package engine;
+
+import java.io.IOException;
+
+/**
+ * A chess engine able to suggest moves and evaluate positions given in FEN notation.
+ * Implemented by the external Stockfish process and by the built-in search engine.
+ */
+public interface ChessEngine extends AutoCloseable {
+
+    /**
+     * Get the best move for the current position
+     * @param fen The position in FEN notation
+     * @param thinkTimeMs Time to think in milliseconds
+     * @return Best move in UCI format (e.g., "e2e4"), or null if there is no legal move
+     * @throws IOException If communication with engine fails
+     */
+    String getBestMove(String fen, int thinkTimeMs) throws IOException;
+
+    /**
+     * Get position evaluation
+     * @param fen The position in FEN notation
+     * @param depth Search depth
+     * @return Evaluation in centipawns, from the point of view of the side to move
+     * @throws IOException If communication with engine fails
+     */
+    int getEvaluation(String fen, int depth) throws IOException;
+
+    /**
+     * Release the resources held by the engine
+     * @throws IOException If the engine can not be shut down cleanly
+     */
+    @Override
+    void close() throws IOException;
+}
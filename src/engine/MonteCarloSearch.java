@@ -0,0 +1,402 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+import com.github.bhlangonijr.chesslib.move.MoveGenerator;
+import com.github.bhlangonijr.chesslib.move.PackedMove;
+import com.github.bhlangonijr.chesslib.util.XorShiftRandom;
+
+/**
+ * A Monte Carlo search based on random games (playouts), run in parallel by worker threads.
+ * <p>
+ * Two kinds of search are supported: pure playouts, that play random games from a position and count their
+ * results, and a Monte Carlo tree search (MCTS), that grows a tree of the most promising moves selected with
+ * the UCT formula, playing a random game from each new leaf. The tree is shared by all the workers, and its
+ * visit counters and scores are updated atomically, with the visits of a node counted when it is selected so
+ * that concurrent workers tend to explore different lines.
+ * <p>
+ * Each worker owns its board and its random generator. Random games are played with the legal move generator,
+ * and end with a checkmate, a stalemate, insufficient material or the fifty-move rule. Repetitions are not
+ * detected, and games longer than 400 plies are counted as draws. Scores are expressed from the point of view
+ * of the side to move in the searched position, as the expected result of the game: 1 for a win, 0.5 for a draw
+ * and 0 for a loss.
+ */
+public class MonteCarloSearch implements AutoCloseable {
+
+    private static final int MAX_PLIES = 400;
+    private static final double EXPLORATION = 1.4;
+    private static final int CHECK_INTERVAL = 63;
+    // results of a game in half points, from the point of view of the side to move
+    private static final int LOSS = 0;
+    private static final int DRAW = 1;
+    private static final int WIN = 2;
+
+    private final int threads;
+    private final ExecutorService workers;
+
+    /**
+     * Create a search using one worker thread per available processor
+     */
+    public MonteCarloSearch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a search
+     * @param threads Number of worker threads
+     */
+    public MonteCarloSearch(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one worker thread is required");
+        }
+        this.threads = threads;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "monte-carlo-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Play random games from a position and count their results
+     * @param fen The position in FEN notation
+     * @param playouts Number of games to play
+     * @return The results of the games
+     */
+    public Result playouts(String fen, long playouts) {
+        AtomicLong remaining = new AtomicLong(playouts);
+        return run(fen, null, worker -> remaining.getAndDecrement() > 0);
+    }
+
+    /**
+     * Run a Monte Carlo tree search on a position
+     * @param fen The position in FEN notation
+     * @param thinkTimeMs Time to think in milliseconds
+     * @return The result of the search, including the best move
+     */
+    public Result search(String fen, int thinkTimeMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(thinkTimeMs);
+        return run(fen, new Node(PackedMove.NONE), new TimeLimit(deadline));
+    }
+
+    /**
+     * Run a Monte Carlo tree search on a position for a fixed number of playouts
+     * @param fen The position in FEN notation
+     * @param playouts Number of games to play
+     * @return The result of the search, including the best move
+     */
+    public Result search(String fen, long playouts) {
+        AtomicLong remaining = new AtomicLong(playouts);
+        return run(fen, new Node(PackedMove.NONE), worker -> remaining.getAndDecrement() > 0);
+    }
+
+    private Result run(String fen, Node root, Limit limit) {
+        Board board = new Board(new GameContext(), false, false);
+        board.loadFromFen(fen);
+        long start = System.nanoTime();
+        List<Callable<long[]>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(board, root, start + i);
+            tasks.add(() -> worker.run(limit));
+        }
+        long[] results = new long[WIN + 1];
+        try {
+            for (Future<long[]> future : workers.invokeAll(tasks)) {
+                long[] counts = future.get();
+                for (int i = 0; i < results.length; i++) {
+                    results[i] += counts[i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Monte Carlo worker failed", e.getCause());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Integer> visits = new LinkedHashMap<>();
+        String bestMove = null;
+        if (root != null && root.children != null) {
+            Node best = null;
+            for (Node child : root.children) {
+                visits.put(PackedMove.toString(child.move), child.visits);
+                if (best == null || child.visits > best.visits) {
+                    best = child;
+                }
+            }
+            bestMove = best != null ? PackedMove.toString(best.move) : null;
+        }
+        return new Result(bestMove, results[WIN], results[DRAW], results[LOSS], elapsed, visits);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * The outcome of a Monte Carlo search
+     */
+    public static final class Result {
+        private final String bestMove;
+        private final long wins;
+        private final long draws;
+        private final long losses;
+        private final long elapsedNanos;
+        private final Map<String, Integer> moveVisits;
+
+        private Result(String bestMove, long wins, long draws, long losses, long elapsedNanos,
+                       Map<String, Integer> moveVisits) {
+            this.bestMove = bestMove;
+            this.wins = wins;
+            this.draws = draws;
+            this.losses = losses;
+            this.elapsedNanos = elapsedNanos;
+            this.moveVisits = Collections.unmodifiableMap(moveVisits);
+        }
+
+        /**
+         * @return The most visited move in UCI format, or null for pure playouts or positions without legal moves
+         */
+        public String getBestMove() {
+            return bestMove;
+        }
+
+        /**
+         * @return Number of games won by the side to move
+         */
+        public long getWins() {
+            return wins;
+        }
+
+        /**
+         * @return Number of drawn games
+         */
+        public long getDraws() {
+            return draws;
+        }
+
+        /**
+         * @return Number of games lost by the side to move
+         */
+        public long getLosses() {
+            return losses;
+        }
+
+        /**
+         * @return Number of games played
+         */
+        public long getPlayouts() {
+            return wins + draws + losses;
+        }
+
+        /**
+         * @return Expected result for the side to move, between 0 (loss) and 1 (win)
+         */
+        public double getScore() {
+            long playouts = getPlayouts();
+            return playouts == 0 ? 0.5 : (wins + draws * 0.5) / playouts;
+        }
+
+        /**
+         * @return Number of games played per second
+         */
+        public long getPlayoutsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (long) (getPlayouts() * 1_000_000_000.0 / elapsedNanos);
+        }
+
+        /**
+         * @return Number of visits of each move of the position, in UCI format, empty for pure playouts
+         */
+        public Map<String, Integer> getMoveVisits() {
+            return moveVisits;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("bestmove %s score %.3f playouts %d (+%d =%d -%d) %d/s", bestMove, getScore(),
+                    getPlayouts(), wins, draws, losses, getPlayoutsPerSecond());
+        }
+    }
+
+    /*
+     * decides whether a worker may play another game
+     */
+    private interface Limit {
+        boolean next(Worker worker);
+    }
+
+    private static final class TimeLimit implements Limit {
+        private final long deadline;
+
+        TimeLimit(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean next(Worker worker) {
+            return (worker.games & CHECK_INTERVAL) != 0 || System.nanoTime() - deadline < 0;
+        }
+    }
+
+    /*
+     * a node of the tree, reached playing a move from its parent. The score is the sum of the results of the games
+     * played through the node, in half points from the point of view of the side that played the move
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicLongFieldUpdater<Node> SCORE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "score");
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        private final int move;
+        private volatile int visits;
+        private volatile long score;
+        private volatile Node[] children;
+
+        Node(int move) {
+            this.move = move;
+        }
+    }
+
+    private static final class Worker {
+        private final Board root;
+        private final Board board = new Board(new GameContext(), false, false);
+        private final Node tree;
+        private final XorShiftRandom random;
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final Node[] path = new Node[MAX_PLIES + 1];
+        private final long[] results = new long[WIN + 1];
+        private long games;
+
+        Worker(Board root, Node tree, long seed) {
+            this.root = root.clone();
+            this.tree = tree;
+            this.random = new XorShiftRandom(seed | 1L);
+        }
+
+        long[] run(Limit limit) {
+            while (limit.next(this)) {
+                root.copyTo(board);
+                int result = tree == null ? playout(0) : treePlayout();
+                results[result]++;
+                games++;
+            }
+            return results;
+        }
+
+        /*
+         * selects a leaf of the tree, expands it, plays a random game from it and updates the nodes along the path
+         */
+        private int treePlayout() {
+            Node node = tree;
+            Node.VISITS.incrementAndGet(node);
+            int depth = 0;
+            int result;
+            while (true) {
+                Node[] children = node.children;
+                if (children == null) {
+                    children = expand(node);
+                    if (children.length > 0) {
+                        node = select(node, children);
+                        board.doMove(node.move, false);
+                        path[++depth] = node;
+                    }
+                    result = playout(depth);
+                    break;
+                }
+                if (children.length == 0 || depth == MAX_PLIES) {
+                    result = playout(depth);
+                    break;
+                }
+                node = select(node, children);
+                board.doMove(node.move, false);
+                path[++depth] = node;
+            }
+            // the nodes at odd depths were reached by moves of the side to move at the root
+            for (int i = 1; i <= depth; i++) {
+                Node.SCORE.addAndGet(path[i], (i & 1) == 1 ? result : WIN - result);
+            }
+            return result;
+        }
+
+        private Node[] expand(Node node) {
+            int count = isGameOver() ? 0 : MoveGenerator.generateLegalMoves(board, moves);
+            Node[] children = new Node[count];
+            for (int i = 0; i < count; i++) {
+                children[i] = new Node(moves[i]);
+            }
+            return Node.CHILDREN.compareAndSet(node, null, children) ? children : node.children;
+        }
+
+        /*
+         * picks the child with the highest upper confidence bound, counting its visit before the game is played
+         */
+        private Node select(Node parent, Node[] children) {
+            double logVisits = Math.log(Math.max(1, parent.visits));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            int offset = random.nextInt(children.length);
+            for (int i = 0; i < children.length; i++) {
+                Node child = children[(i + offset) % children.length];
+                int visits = child.visits;
+                if (visits == 0) {
+                    best = child;
+                    break;
+                }
+                double value = child.score / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            Node.VISITS.incrementAndGet(best);
+            return best;
+        }
+
+        /*
+         * plays a random game, returning its result from the point of view of the side to move at the root, given
+         * the number of plies already played from the root
+         */
+        private int playout(int plies) {
+            while (true) {
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                int result;
+                if (count == 0) {
+                    // the side to move lost if checkmated
+                    result = board.isKingAttacked() ? LOSS : DRAW;
+                } else if (board.isInsufficientMaterial() || board.getHalfMoveCounter() >= 100 ||
+                        plies >= MAX_PLIES) {
+                    result = DRAW;
+                } else {
+                    board.doMove(moves[random.nextInt(count)], false);
+                    plies++;
+                    continue;
+                }
+                return (plies & 1) == 0 ? result : WIN - result;
+            }
+        }
+
+        private boolean isGameOver() {
+            return board.isInsufficientMaterial() || board.getHalfMoveCounter() >= 100;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.bhlangonijr.chesslib.move.PackedMove;
+
+/**
+ * A chess engine written in pure Java, running in the same process as its caller. It is the fallback used when
+ * the Stockfish executable is not available, and it answers without any process I/O.
+ * <p>
+ * The engine runs an iterative deepening principal variation search, with a quiescence search on captures,
+ * null move pruning and late move reductions, and evaluates positions with tapered piece-square tables. The search
+ * is parallelized with the lazy SMP approach: helper threads search the same position at different depths, sharing
+ * a lock-free transposition table, while the result of the main thread is returned.
+ */
+public class SearchEngine implements ChessEngine {
+
+    private static final int MAX_DEPTH = 64;
+    private static final int DEFAULT_HASH_MB = 64;
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    private final TranspositionTable table;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final Searcher[] searchers;
+    private final ExecutorService helpers;
+
+    /**
+     * Create an engine using one thread per available processor and a 64 MB hash table
+     */
+    public SearchEngine() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_HASH_MB);
+    }
+
+    /**
+     * Create an engine
+     * @param threads Number of search threads, including the calling thread
+     * @param hashSizeMb Size of the transposition table in megabytes
+     */
+    public SearchEngine(int threads, int hashSizeMb) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required");
+        }
+        table = new TranspositionTable(hashSizeMb);
+        searchers = new Searcher[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = new Searcher(table, stopped);
+        }
+        helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Get the best move for the current position
+     * @param fen The position in FEN notation
+     * @param thinkTimeMs Time to think in milliseconds
+     * @return Best move in UCI format (e.g., "e2e4"), or null if there is no legal move
+     */
+    @Override
+    public synchronized String getBestMove(String fen, int thinkTimeMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, thinkTimeMs));
+        int move = search(fen, MAX_DEPTH, deadline).getBestMove();
+        return move == PackedMove.NONE ? null : PackedMove.toString(move);
+    }
+
+    /**
+     * Get position evaluation
+     * @param fen The position in FEN notation
+     * @param depth Search depth
+     * @return Evaluation in centipawns, from the point of view of the side to move
+     */
+    @Override
+    public synchronized int getEvaluation(String fen, int depth) {
+        return search(fen, Math.max(1, Math.min(depth, MAX_DEPTH)), NO_DEADLINE).getBestScore();
+    }
+
+    /**
+     * Clear the transposition table, forgetting the results of the previous searches
+     */
+    public synchronized void clearHash() {
+        table.clear();
+    }
+
+    /*
+     * runs the main search in the calling thread and the helpers in the pool, stopping the helpers as soon as the main
+     * search is over
+     */
+    private Searcher search(String fen, int maxDepth, long deadline) {
+        table.newSearch();
+        stopped.set(false);
+        Searcher main = searchers[0];
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < searchers.length; i++) {
+            Searcher helper = searchers[i];
+            int startDepth = 1 + (i & 1);
+            futures.add(helpers.submit(() -> helper.search(fen, maxDepth, startDepth, deadline)));
+        }
+        try {
+            main.search(fen, maxDepth, 1, deadline);
+        } finally {
+            stopped.set(true);
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // a failing helper does not affect the result of the main search
+                }
+            }
+        }
+        return main;
+    }
+
+    @Override
+    public void close() {
+        stopped.set(true);
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
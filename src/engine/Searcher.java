@@ -0,0 +1,375 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.Side;
+import com.github.bhlangonijr.chesslib.eval.PstEvaluator;
+import com.github.bhlangonijr.chesslib.game.GameContext;
+import com.github.bhlangonijr.chesslib.move.MoveGenerator;
+import com.github.bhlangonijr.chesslib.move.PackedMove;
+
+/**
+ * A single search thread of the built-in engine. It runs an iterative deepening principal variation search,
+ * with a quiescence search on captures at the leaves. Each searcher owns its board, its move buffers and its
+ * move ordering heuristics, and shares the transposition table and the stop flag with the other threads.
+ */
+final class Searcher {
+
+    static final int MAX_PLY = 100;
+    static final int INFINITY = 32000;
+    static final int MATE = 31000;
+    static final int MATE_BOUND = MATE - 2 * MAX_PLY;
+
+    // values used to order captures, indexed by piece ordinal
+    private static final int[] pieceValues = {100, 325, 325, 500, 1000, 2000, 100, 325, 325, 500, 1000, 2000, 0};
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int MAX_HISTORY = 1 << 20;
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final TranspositionTable table;
+    private final AtomicBoolean stopped;
+    private final Board board = new Board(new GameContext(), true, false);
+    private final PstEvaluator evaluator = new PstEvaluator();
+    private final int[][] moves = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] scores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[] history = new int[2 * 64 * 64];
+
+    private long deadline;
+    private long nodes;
+    private int completedDepth;
+    private int rootMove;
+    private int rootScore;
+    private int bestMove;
+    private int bestScore;
+
+    Searcher(TranspositionTable table, AtomicBoolean stopped) {
+        this.table = table;
+        this.stopped = stopped;
+        board.setEvaluator(evaluator);
+    }
+
+    /**
+     * Search a position with iterative deepening, until the maximum depth is reached or the search is stopped
+     * @param fen The position in FEN notation
+     * @param maxDepth The maximum depth
+     * @param startDepth The depth of the first iteration, higher than 1 for helper threads
+     * @param deadline The time at which the search must stop, as returned by System.nanoTime()
+     */
+    void search(String fen, int maxDepth, int startDepth, long deadline) {
+        board.loadFromFen(fen);
+        this.deadline = deadline;
+        nodes = 0;
+        completedDepth = 0;
+        bestMove = PackedMove.NONE;
+        bestScore = 0;
+        for (int[] killer : killers) {
+            killer[0] = PackedMove.NONE;
+            killer[1] = PackedMove.NONE;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            rootMove = PackedMove.NONE;
+            int score = search(depth, -INFINITY, INFINITY, 0, false);
+            if (rootMove != PackedMove.NONE) {
+                // a root move is only updated after its subtree was searched completely
+                bestMove = rootMove;
+                bestScore = rootScore;
+            }
+            if (stopped.get()) {
+                break;
+            }
+            completedDepth = depth;
+            if (bestMove == PackedMove.NONE || Math.abs(score) >= MATE_BOUND) {
+                // no legal moves, or a forced mate was found
+                break;
+            }
+        }
+    }
+
+    int getBestMove() {
+        return bestMove;
+    }
+
+    int getBestScore() {
+        return bestScore;
+    }
+
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    private int search(int depth, int alpha, int beta, int ply, boolean allowNullMove) {
+        final boolean root = ply == 0;
+        final boolean pvNode = beta - alpha > 1;
+        if (!root) {
+            if (board.getHalfMoveCounter() >= 100 || board.isInsufficientMaterial() || board.isRepetition(2)) {
+                return 0;
+            }
+            // no line can be better than a mate at the current ply
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        if (shouldStop()) {
+            return 0;
+        }
+        final boolean inCheck = board.isKingAttacked();
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (ply >= MAX_PLY) {
+            return evaluator.evaluate(board);
+        }
+
+        final long key = board.getIncrementalHashKey();
+        final long entry = table.probe(key);
+        int ttMove = PackedMove.NONE;
+        if (entry != 0L) {
+            ttMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT ||
+                        (bound == TranspositionTable.LOWER && score >= beta) ||
+                        (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        // null move pruning, not safe in zugzwang positions, that are rare with pieces on the board
+        if (allowNullMove && !pvNode && !inCheck && depth >= 3 && hasPieces(board.getSideToMove()) &&
+                evaluator.evaluate(board) >= beta) {
+            int reduction = 2 + depth / 4;
+            board.doNullMove();
+            int score = -search(depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            board.undoMove();
+            if (stopped.get()) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        final int[] moveList = moves[ply];
+        final int[] moveScores = scores[ply];
+        final int count = MoveGenerator.generateLegalMoves(board, moveList);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moveList, moveScores, count, ttMove, ply);
+
+        final int side = board.getSideToMove().ordinal();
+        final int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(moveList, moveScores, i, count);
+            boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+            board.doMove(move, false);
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // late quiet moves are searched with a reduced depth first
+                int reduction = depth >= 3 && i >= 3 && quiet && !inCheck && !board.isKingAttacked() ?
+                        (i >= 8 ? 2 : 1) : 0;
+                score = -search(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && reduction > 0) {
+                    score = -search(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            board.undoMove();
+            if (stopped.get()) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (root) {
+                    rootMove = move;
+                    rootScore = score;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            updateQuietStats(move, side, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER :
+                best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        if (shouldStop()) {
+            return 0;
+        }
+        final boolean inCheck = board.isKingAttacked();
+        if (ply >= MAX_PLY) {
+            return inCheck ? 0 : evaluator.evaluate(board);
+        }
+        int best = -INFINITY;
+        if (!inCheck) {
+            // the side to move can stand pat instead of capturing
+            best = evaluator.evaluate(board);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        final int[] moveList = moves[ply];
+        final int[] moveScores = scores[ply];
+        final int count = MoveGenerator.generateLegalMoves(board, moveList);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moveList, moveScores, count, PackedMove.NONE, ply);
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(moveList, moveScores, i, count);
+            boolean tactical = PackedMove.isCapture(move) || PackedMove.isPromotion(move);
+            if (!inCheck) {
+                if (!tactical) {
+                    // moves are sorted, hence all the remaining moves are quiet
+                    break;
+                }
+                if (!PackedMove.isPromotion(move) && losesMaterial(move)) {
+                    continue;
+                }
+            }
+            board.doMove(move, false);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            board.undoMove();
+            if (stopped.get()) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean shouldStop() {
+        if ((++nodes & CHECK_INTERVAL) == 0 && completedDepth > 0 && System.nanoTime() - deadline > 0) {
+            stopped.set(true);
+        }
+        return stopped.get();
+    }
+
+    private boolean hasPieces(Side side) {
+        return side == Side.WHITE ?
+                board.getPieceCount(Piece.WHITE_KNIGHT) + board.getPieceCount(Piece.WHITE_BISHOP) +
+                        board.getPieceCount(Piece.WHITE_ROOK) + board.getPieceCount(Piece.WHITE_QUEEN) > 0 :
+                board.getPieceCount(Piece.BLACK_KNIGHT) + board.getPieceCount(Piece.BLACK_BISHOP) +
+                        board.getPieceCount(Piece.BLACK_ROOK) + board.getPieceCount(Piece.BLACK_QUEEN) > 0;
+    }
+
+    private boolean losesMaterial(int move) {
+        int attacker = pieceValues[board.getPiece(PackedMove.getFrom(move)).ordinal()];
+        int victim = pieceValues[board.getPiece(PackedMove.getTo(move)).ordinal()];
+        return attacker > victim && board.staticExchangeEvaluation(PackedMove.toMove(move)) < 0;
+    }
+
+    /*
+     * orders the move of the transposition table first, then captures by most valuable victim and least valuable
+     * attacker, then killer moves, and finally quiet moves by their history score
+     */
+    private void scoreMoves(int[] moveList, int[] moveScores, int count, int ttMove, int ply) {
+        final int side = board.getSideToMove().ordinal();
+        final int[] killer = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moveList[i];
+            int score;
+            if (ttMove != PackedMove.NONE && PackedMove.sameMove(move, ttMove)) {
+                score = TT_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                int victim = PackedMove.isEnPassant(move) ? 100 :
+                        pieceValues[board.getPiece(PackedMove.getTo(move)).ordinal()];
+                int promotion = pieceValues[PackedMove.getPromotion(move).ordinal()];
+                int attacker = pieceValues[board.getPiece(PackedMove.getFrom(move)).ordinal()];
+                score = CAPTURE_SCORE + 16 * (victim + promotion) - attacker / 100;
+            } else if (PackedMove.sameMove(move, killer[0]) || PackedMove.sameMove(move, killer[1])) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[side << 12 | (move & 0xFFF)];
+            }
+            moveScores[i] = score;
+        }
+    }
+
+    /*
+     * selects the best scored move among the ones not searched yet and swaps it to the given index
+     */
+    private static int nextMove(int[] moveList, int[] moveScores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (moveScores[i] > moveScores[best]) {
+                best = i;
+            }
+        }
+        int move = moveList[best];
+        moveList[best] = moveList[index];
+        moveList[index] = move;
+        int score = moveScores[best];
+        moveScores[best] = moveScores[index];
+        moveScores[index] = score;
+        return move;
+    }
+
+    private void updateQuietStats(int move, int side, int depth, int ply) {
+        int[] killer = killers[ply];
+        if (!PackedMove.sameMove(move, killer[0])) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int index = side << 12 | (move & 0xFFF);
+        history[index] = Math.min(MAX_HISTORY, history[index] + depth * depth);
+    }
+
+    /*
+     * mate scores are stored relative to the position, and returned relative to the root
+     */
+    private static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+}
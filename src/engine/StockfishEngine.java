@@ -3,7 +3,7 @@ package engine;
 import java.io.*;
 import java.util.concurrent.TimeUnit;
 
-public class StockfishEngine implements AutoCloseable {
+public class StockfishEngine implements ChessEngine {
     private final Process engineProcess;
     private final BufferedReader reader;
     private final BufferedWriter writer;
@@ -45,6 +45,7 @@ public class StockfishEngine implements AutoCloseable {
      * @return Best move in UCI format (e.g., "e2e4")
      * @throws IOException If communication with engine fails
      */
+    @Override
     public String getBestMove(String fen, int thinkTimeMs) throws IOException {
         // Set up the position
         sendCommand("position fen " + fen);
@@ -75,6 +76,7 @@ public class StockfishEngine implements AutoCloseable {
      * @return Evaluation in centipawns
      * @throws IOException If communication with engine fails
      */
+    @Override
     public int getEvaluation(String fen, int depth) throws IOException {
         sendCommand("position fen " + fen);
         sendCommand("go depth " + depth);
@@ -146,7 +148,7 @@ public class StockfishEngine implements AutoCloseable {
     }
 
     @Override
-    public void close() throws Exception {
+    public void close() throws IOException {
         try {
             sendCommand("quit");
             
@@ -154,6 +156,9 @@ public class StockfishEngine implements AutoCloseable {
             if (!engineProcess.waitFor(2, TimeUnit.SECONDS)) {
                 engineProcess.destroyForcibly();
             }
+        } catch (InterruptedException e) {
+            engineProcess.destroyForcibly();
+            Thread.currentThread().interrupt();
         } finally {
             if (reader != null) reader.close();
             if (writer != null) writer.close();
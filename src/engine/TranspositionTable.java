@@ -0,0 +1,115 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * A lock-free hash table shared by all the search threads of the built-in engine.
+ * <p>
+ * Each entry is made of two longs: the data, and the position key XORed with the data. Entries are read and
+ * written without any synchronization, and an entry torn by concurrent writes is simply detected as a miss,
+ * because its key no longer matches.
+ * <p>
+ * The data packs the following fields:
+ * <ul>
+ *     <li>bits 0-19: the best move, packed as in {@link com.github.bhlangonijr.chesslib.move.PackedMove};</li>
+ *     <li>bits 20-35: the score;</li>
+ *     <li>bits 36-43: the depth;</li>
+ *     <li>bits 44-45: the bound;</li>
+ *     <li>bits 46-53: the generation of the search that stored the entry.</li>
+ * </ul>
+ */
+final class TranspositionTable {
+
+    static final int EXACT = 1;
+    static final int LOWER = 2;
+    static final int UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    TranspositionTable(int sizeMb) {
+        long size = Math.min(1 << 30, Math.max(1L, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES));
+        int entries = Integer.highestOneBit((int) size);
+        keys = new long[entries];
+        data = new long[entries];
+        mask = entries - 1;
+    }
+
+    /**
+     * Start a new search, so that the entries of the previous searches are replaced first
+     */
+    void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Look up a position
+     * @param key The position key
+     * @return The data of the entry, or 0 if the position is not in the table
+     */
+    long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        return (keys[index] ^ entry) == key ? entry : 0L;
+    }
+
+    /**
+     * Store the result of the search of a position
+     * @param key The position key
+     * @param move The best move found, or 0 if unknown
+     * @param score The score, already adjusted for mate distance
+     * @param depth The search depth
+     * @param bound The bound of the score, one of EXACT, LOWER or UPPER
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long old = data[index];
+        boolean sameKey = (keys[index] ^ old) == key;
+        // keep deeper results of the current search, unless the new one is exact
+        if (old != 0L && generation(old) == generation && depth(old) > depth && bound != EXACT && !sameKey) {
+            return;
+        }
+        if (sameKey && move == 0) {
+            move = move(old);
+        }
+        long entry = (move & 0xFFFFFL)
+                | ((long) (score & 0xFFFF) << 20)
+                | ((long) (depth & 0xFF) << 36)
+                | ((long) bound << 44)
+                | ((long) generation << 46);
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    /**
+     * Clear all the entries
+     */
+    void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    static int move(long entry) {
+        return (int) (entry & 0xFFFFF);
+    }
+
+    static int score(long entry) {
+        return (short) (entry >>> 20);
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 36) & 0xFF;
+    }
+
+    static int bound(long entry) {
+        return (int) (entry >>> 44) & 0x3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 46) & 0xFF;
+    }
+}